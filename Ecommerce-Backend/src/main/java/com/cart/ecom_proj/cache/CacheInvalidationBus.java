@@ -0,0 +1,102 @@
+package com.cart.ecom_proj.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps the in-process caches of several backend nodes consistent.
+ *
+ * A node that changes data updates its own caches and publishes the affected key; every other
+ * node evicts that key when the message arrives and then notifies the subscriber of the cache,
+ * which can refresh any views derived from it.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager cacheManager;
+
+    private final InvalidationTransport transport;
+
+    private final Map<String, Subscription<?>> subscriptions = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(CacheManager cacheManager, InvalidationTransport transport) {
+        this.cacheManager = cacheManager;
+        this.transport = transport;
+        transport.subscribe(this::receive);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Tells the other nodes to evict a key. Failures are logged rather than thrown since the
+     * local write has already happened; remote entries then expire with the cache TTL.
+     *
+     * @param cacheName cache the key belongs to
+     * @param key       evicted key, or null to clear the whole cache
+     */
+    public void publish(String cacheName, Object key) {
+        try {
+            transport.publish(new InvalidationMessage(nodeId, cacheName, key != null ? key.toString() : null));
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish invalidation of {} in cache {}", key, cacheName, e);
+        }
+    }
+
+    /**
+     * Registers how keys of a cache are read back from messages and who is told about remote changes.
+     *
+     * @param cacheName cache to subscribe to
+     * @param keyParser converts the string form of a key back to the key type used by the cache
+     * @param listener  called after the key was evicted, with null when the whole cache was cleared
+     */
+    public <K> void subscribe(String cacheName, Function<String, K> keyParser, Consumer<K> listener) {
+        subscriptions.put(cacheName, new Subscription<>(keyParser, listener));
+    }
+
+    private void receive(InvalidationMessage message) {
+        if (nodeId.equals(message.nodeId())) {
+            return;
+        }
+        Subscription<?> subscription = subscriptions.get(message.cacheName());
+        if (subscription != null) {
+            subscription.apply(cacheManager.getCache(message.cacheName()), message.key());
+        } else {
+            apply(cacheManager.getCache(message.cacheName()), message.key());
+        }
+    }
+
+    private static void apply(Cache cache, Object key) {
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    private record Subscription<K>(Function<String, K> keyParser, Consumer<K> listener) {
+
+        void apply(Cache cache, String rawKey) {
+            K key = rawKey != null ? keyParser.apply(rawKey) : null;
+            CacheInvalidationBus.apply(cache, key);
+            listener.accept(key);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.cart.ecom_proj.cache;
+
+/**
+ * Cache eviction broadcast to the other backend nodes.
+ *
+ * @param nodeId    node that made the change (and already evicted its own entry)
+ * @param cacheName name of the affected cache
+ * @param key       string form of the evicted key, or null when the whole cache was cleared
+ */
+public record InvalidationMessage(String nodeId, String cacheName, String key) {
+}
@@ -0,0 +1,16 @@
+package com.cart.ecom_proj.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationMessage}s between backend nodes.
+ *
+ * Delivery is at least once and messages from a single node arrive in the order they were
+ * published. Subscribers also receive the messages published by their own node.
+ */
+public interface InvalidationTransport {
+
+    void publish(InvalidationMessage message);
+
+    void subscribe(Consumer<InvalidationMessage> subscriber);
+}
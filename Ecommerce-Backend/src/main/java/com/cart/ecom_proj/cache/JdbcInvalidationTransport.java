@@ -0,0 +1,117 @@
+package com.cart.ecom_proj.cache;
+
+import com.cart.ecom_proj.model.CacheInvalidation;
+import com.cart.ecom_proj.repo.CacheInvalidationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Shares invalidations through the {@code cache_invalidation} table, which every node polls
+ * for rows above the highest ID it has seen.
+ *
+ * Auto-increment IDs can become visible out of order when inserts commit concurrently, so each
+ * poll looks back {@link #LOOKBACK} IDs below the high-water mark and skips rows it already
+ * delivered. Rows older than the retention period are deleted; a node that was paused for
+ * longer than that relies on the cache TTLs instead.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+
+    static final int LOOKBACK = 100;
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private CacheInvalidationRepository repository;
+
+    @Value("${app.cache.invalidation.retention:10m}")
+    private Duration retention;
+
+    private final List<Consumer<InvalidationMessage>> subscribers = new CopyOnWriteArrayList<>();
+
+    // Guarded by this; only touched by the polling thread outside of tests
+    private long startMark;
+    private long highWaterMark;
+    private final TreeSet<Long> recentlyDelivered = new TreeSet<>();
+
+    /**
+     * Starts from the current end of the table: caches are empty at startup, so older
+     * invalidations do not apply to this node.
+     */
+    @PostConstruct
+    public synchronized void init() {
+        startMark = repository.findMaxId();
+        highWaterMark = startMark;
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        repository.save(new CacheInvalidation(null, message.nodeId(), message.cacheName(), message.key(),
+                LocalDateTime.now()));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Delivers rows that appeared since the previous poll, in ID order.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval:1000}")
+    public synchronized void poll() {
+        List<CacheInvalidation> rows;
+        do {
+            rows = repository.findByIdGreaterThanOrderByIdAsc(Math.max(startMark, highWaterMark - LOOKBACK),
+                    PageRequest.of(0, BATCH_SIZE));
+            boolean progressed = false;
+            for (CacheInvalidation row : rows) {
+                if (!recentlyDelivered.add(row.getId())) {
+                    continue;
+                }
+                progressed = true;
+                highWaterMark = Math.max(highWaterMark, row.getId());
+                deliver(new InvalidationMessage(row.getNodeId(), row.getCacheName(), row.getCacheKey()));
+            }
+            recentlyDelivered.headSet(highWaterMark - LOOKBACK, true).clear();
+            if (!progressed) {
+                break;
+            }
+        } while (rows.size() == BATCH_SIZE);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.prune-interval:60000}")
+    public void prune() {
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            logger.debug("Pruned {} cache invalidation rows", deleted);
+        }
+    }
+
+    private void deliver(InvalidationMessage message) {
+        for (Consumer<InvalidationMessage> subscriber : subscribers) {
+            try {
+                subscriber.accept(message);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to apply cache invalidation {}", message, e);
+            }
+        }
+    }
+}
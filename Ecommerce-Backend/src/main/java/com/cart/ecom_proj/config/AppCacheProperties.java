@@ -0,0 +1,41 @@
+package com.cart.ecom_proj.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache limits bound from {@code app.cache.specs.<name>.*}.
+ *
+ * Only caches listed here exist; a {@code @Cacheable} naming any other cache fails instead of
+ * silently creating an unbounded one.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class AppCacheProperties {
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Upper bound on the estimated size of all entries in the cache.
+         */
+        private DataSize maxWeight = DataSize.ofMegabytes(1);
+
+        /**
+         * Entries are dropped this long after they were written, regardless of use.
+         */
+        private Duration expireAfterWrite;
+
+        /**
+         * Entries are dropped when they have not been read or written for this long.
+         */
+        private Duration expireAfterAccess;
+    }
+}
@@ -0,0 +1,48 @@
+package com.cart.ecom_proj.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+/**
+ * Caffeine caches bounded by estimated size in bytes rather than entry count, so the heap they
+ * take stays predictable when a single entry holds the whole catalog.
+ *
+ * Statistics are recorded for every cache and published through Micrometer as
+ * {@code cache.gets}, {@code cache.puts} and {@code cache.evictions}; the caches themselves are
+ * listed by the actuator {@code caches} endpoint.
+ */
+@Configuration
+@EnableConfigurationProperties(AppCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(AppCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // No dynamic caches: only the configured ones below are available
+        cacheManager.setCacheNames(Collections.emptyList());
+        EntrySizeWeigher weigher = new EntrySizeWeigher();
+        properties.getSpecs().forEach((name, spec) ->
+                cacheManager.registerCustomCache(name, buildCache(spec, weigher).build()));
+        return cacheManager;
+    }
+
+    static Caffeine<Object, Object> buildCache(AppCacheProperties.Spec spec, EntrySizeWeigher weigher) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaxWeight().toBytes())
+                .weigher(weigher)
+                .recordStats();
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder;
+    }
+}
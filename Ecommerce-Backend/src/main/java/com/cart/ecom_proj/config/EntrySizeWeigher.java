@@ -0,0 +1,67 @@
+package com.cart.ecom_proj.config;
+
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.model.Product;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.util.Collection;
+
+/**
+ * Weighs cache entries by an estimate of the heap their fields take plus a fixed per-entry
+ * overhead.
+ *
+ * The estimate reads the string fields of the cached types and sums over collections, so it
+ * grows with the data an entry actually holds (description text, list length) without
+ * serializing the value on every put. Values of other types are given {@link #FALLBACK_WEIGHT}.
+ */
+class EntrySizeWeigher implements Weigher<Object, Object> {
+
+    /**
+     * Approximate cost of the cache node, key and object headers.
+     */
+    static final int ENTRY_OVERHEAD = 128;
+
+    static final int FALLBACK_WEIGHT = 1024;
+
+    // Object header, numbers, flags and references of one cached object
+    private static final int SUMMARY_FIXED = 96;
+    private static final int PRODUCT_FIXED = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long size = ENTRY_OVERHEAD + sizeOf(String.valueOf(key)) + estimate(value);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 16L + 8L * collection.size();
+            for (Object element : collection) {
+                size += estimate(element);
+            }
+            return size;
+        }
+        if (value instanceof ProductSummary summary) {
+            return SUMMARY_FIXED + sizeOf(summary.getName()) + sizeOf(summary.getBrand())
+                    + sizeOf(summary.getCategory()) + sizeOf(summary.getImageHash());
+        }
+        if (value instanceof Product product) {
+            return PRODUCT_FIXED + sizeOf(product.getName()) + sizeOf(product.getDescription())
+                    + sizeOf(product.getBrand()) + sizeOf(product.getCategory()) + sizeOf(product.getImageName())
+                    + sizeOf(product.getImageType()) + sizeOf(product.getImageHash())
+                    + sizeOf(product.getCreatedBy()) + sizeOf(product.getUpdatedBy());
+        }
+        if (value instanceof CharSequence text) {
+            return sizeOf(text);
+        }
+        return FALLBACK_WEIGHT;
+    }
+
+    private static long sizeOf(CharSequence text) {
+        // String header and array; Latin-1 text takes one byte per character
+        return text == null ? 0 : 40 + text.length();
+    }
+}
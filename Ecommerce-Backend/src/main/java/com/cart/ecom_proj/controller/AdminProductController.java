@@ -0,0 +1,88 @@
+package com.cart.ecom_proj.controller;
+
+import com.cart.ecom_proj.dto.BulkProductUpdateRequest;
+import com.cart.ecom_proj.dto.BulkProductUpdateResponse;
+import com.cart.ecom_proj.dto.ImportJobStatus;
+import com.cart.ecom_proj.service.ProductImportService;
+import com.cart.ecom_proj.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+@RequestMapping("/api/admin/products")
+@Tag(name = "Product Administration", description = "Bulk product management APIs (Admin)")
+@SecurityRequirement(name = "cookieAuth")
+public class AdminProductController {
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Operation(summary = "Update price and stock of many products",
+            description = "Applies price, stock quantity and availability changes to up to 1000 products " +
+                    "in one transaction. Omitted fields keep their current value.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid update list"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PatchMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkProductUpdateResponse> bulkUpdateProducts(
+            @Valid @RequestBody BulkProductUpdateRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(productService.bulkUpdateProducts(request.getUpdates(), username));
+    }
+
+    @Operation(summary = "Import products from CSV",
+            description = "Queues an import of a CSV file with the columns of the product export. " +
+                    "Poll the returned job for progress and per-row errors.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import queued"),
+            @ApiResponse(responseCode = "400", description = "No file uploaded"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportJobStatus> importProducts(
+            @Parameter(description = "CSV file with a header row", required = true)
+            @RequestParam("file") MultipartFile file) throws IOException {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        ImportJobStatus status = importService.startImport(file, username);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/admin/products/import/" + status.getJobId()))
+                .body(status);
+    }
+
+    @Operation(summary = "Get product import progress")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import progress"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired import job")
+    })
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportJobStatus> getImportStatus(
+            @Parameter(description = "Import job ID", required = true)
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(importService.getImportStatus(jobId));
+    }
+}
@@ -8,8 +8,10 @@ import com.cart.ecom_proj.model.Order;
 import com.cart.ecom_proj.model.OrderItem;
 import com.cart.ecom_proj.model.OrderStatus;
 import com.cart.ecom_proj.model.User;
+import com.cart.ecom_proj.service.IdempotencyService;
 import com.cart.ecom_proj.service.OrderService;
 import com.cart.ecom_proj.service.UserService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -43,6 +45,9 @@ public class OrderController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return userService.getUserByUsername(authentication.getName());
@@ -52,8 +57,9 @@ public class OrderController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order created successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid order data or insufficient inventory"),
+            @ApiResponse(responseCode = "400", description = "Invalid order data, insufficient inventory or Idempotency-Key reused for another order"),
             @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "409", description = "An order with the same Idempotency-Key is still being placed"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @SecurityRequirement(name = "cookieAuth")
@@ -61,10 +67,15 @@ public class OrderController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "Order creation details", required = true,
-            content = @Content(schema = @Schema(implementation = CreateOrderRequest.class))) CreateOrderRequest request) {
+            content = @Content(schema = @Schema(implementation = CreateOrderRequest.class))) CreateOrderRequest request,
+            @Parameter(description = "Client-generated key; retries with the same key return the first order instead of placing another")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         User user = getCurrentUser();
-        Order order = orderService.createOrder(request, user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(mapToOrderResponse(order));
+        return idempotencyService.execute("orders.create", user.getUsername(), idempotencyKey, request,
+                new TypeReference<OrderResponse>() {}, () -> {
+                    Order order = orderService.createOrder(request, user);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(mapToOrderResponse(order));
+                });
     }
 
     @Operation(summary = "Get user orders", description = "Get paginated list of orders for the authenticated user")
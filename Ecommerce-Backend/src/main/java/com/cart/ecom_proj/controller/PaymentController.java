@@ -1,12 +1,16 @@
 package com.cart.ecom_proj.controller;
 
+import com.cart.ecom_proj.exception.ServiceUnavailableException;
 import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.service.IdempotencyService;
 import com.cart.ecom_proj.service.OrderService;
 import com.cart.ecom_proj.service.PaymentService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -22,21 +26,53 @@ public class PaymentController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    // Replays of a payment intent keep only its ID; the client secret is fetched from Stripe again
+    private final IdempotencyService.StoredForm<Map<String, String>> withoutClientSecret =
+            new IdempotencyService.StoredForm<>() {
+                @Override
+                public Map<String, String> toStored(Map<String, String> response) {
+                    Map<String, String> stored = new HashMap<>(response);
+                    stored.remove("clientSecret");
+                    return stored;
+                }
+
+                @Override
+                public Map<String, String> fromStored(Map<String, String> stored) {
+                    try {
+                        PaymentIntent paymentIntent = paymentService.getPaymentIntent(stored.get("paymentIntentId"));
+                        Map<String, String> response = new HashMap<>(stored);
+                        response.put("clientSecret", paymentIntent.getClientSecret());
+                        return response;
+                    } catch (StripeException e) {
+                        throw new ServiceUnavailableException("Could not load the payment intent: " + e.getMessage());
+                    }
+                }
+            };
+
     @PostMapping("/create-payment-intent/{orderId}")
-    public ResponseEntity<Map<String, String>> createPaymentIntent(@PathVariable Long orderId) {
-        try {
-            Order order = orderService.getOrderById(orderId);
-            PaymentIntent paymentIntent = paymentService.createPaymentIntent(order);
-            
-            Map<String, String> response = new HashMap<>();
-            response.put("clientSecret", paymentIntent.getClientSecret());
-            
-            return ResponseEntity.ok(response);
-        } catch (StripeException e) {
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
-        }
+    public ResponseEntity<Map<String, String>> createPaymentIntent(@PathVariable Long orderId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        return idempotencyService.execute("payments.create-intent", authentication.getName(), idempotencyKey, orderId,
+                new TypeReference<Map<String, String>>() {}, withoutClientSecret, () -> {
+            try {
+                Order order = orderService.getOrderById(orderId);
+                PaymentIntent paymentIntent = paymentService.createPaymentIntent(order);
+
+                Map<String, String> response = new HashMap<>();
+                response.put("paymentIntentId", paymentIntent.getId());
+                response.put("clientSecret", paymentIntent.getClientSecret());
+
+                return ResponseEntity.ok(response);
+            } catch (StripeException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+        });
     }
 
     @PostMapping("/confirm/{paymentIntentId}")
@@ -1,7 +1,14 @@
 package com.cart.ecom_proj.controller;
 
+import com.cart.ecom_proj.dto.AdvancedSearchRequest;
+import com.cart.ecom_proj.dto.CursorPage;
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.SearchFiltersResponse;
 import com.cart.ecom_proj.model.Product;
 import com.cart.ecom_proj.service.ProductService;
+import com.cart.ecom_proj.storage.ImageVariant;
+import com.cart.ecom_proj.storage.StoredImage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,17 +19,28 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
@@ -52,15 +70,36 @@ public class ProductController {
         
         // If pagination parameters are provided, return paginated results
         if (page >= 0 && size > 0) {
-            Page<Product> productsPage = service.getAllProductsPaginated(page, size, sortBy, sortDir);
+            Page<ProductSummary> productsPage = service.getAllProductsPaginated(page, size, sortBy, sortDir);
             return ResponseEntity.ok(productsPage);
         }
         
         // Otherwise return all products (for backward compatibility)
-        List<Product> products = service.getAllProducts();
+        List<ProductSummary> products = service.getAllProducts();
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
+    @Operation(summary = "Get products by cursor", description = "Keyset pagination: pass an empty cursor for the first page " +
+            "and nextCursor from the response for the following ones. No total count is computed, so deep pages are as fast as the first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort field"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/products", params = "cursor")
+    public ResponseEntity<CursorPage<ProductSummary>> getProductsByCursor(
+            @Parameter(description = "Cursor from the previous page (empty for the first page)", example = "")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of items per page", example = "12")
+            @RequestParam(required = false, defaultValue = "12") int size,
+            @Parameter(description = "Sort field (id, name, brand, category, price, stockQuantity)", example = "id")
+            @RequestParam(required = false, defaultValue = "id") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)", example = "asc")
+            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
+        return ResponseEntity.ok(service.getProductsByCursor(cursor, size, sortBy, sortDir));
+    }
+
     @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product found",
@@ -101,26 +140,117 @@ public class ProductController {
         }
     }
 
-    @Operation(summary = "Get product image", description = "Retrieve product image by product ID")
+    @Operation(summary = "Get product image", description = "Retrieve product image by product ID, optionally as a pre-sized variant. " +
+            "Supports conditional requests (If-None-Match / If-Modified-Since).")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Image retrieved successfully",
                     content = @Content(mediaType = "image/*")),
+            @ApiResponse(responseCode = "304", description = "Image not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid image size"),
             @ApiResponse(responseCode = "404", description = "Product or image not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/product/{productId}/image")
     public ResponseEntity<byte[]> getImageByProductId(
             @Parameter(description = "Product ID", required = true, example = "1")
-            @PathVariable int productId){
+            @PathVariable int productId,
+            @Parameter(description = "Image size (thumbnail, card, detail, original)", example = "card")
+            @RequestParam(required = false, defaultValue = "original") String size,
+            WebRequest webRequest) throws IOException {
+        ImageVariant variant = ImageVariant.fromParam(size);
         Product product = service.getProductById(productId);
-        if (product == null || product.getImageData() == null) {
+        if (product.getImageHash() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Answer revalidations from the image reference alone, without reading the image
+        long lastModified = lastModifiedOf(product);
+        if (webRequest.checkNotModified(StoredImage.etagFor(product.getImageHash(), variant), lastModified)) {
+            return null;
+        }
+        StoredImage image = service.getProductImage(product, variant).orElse(null);
+        if (image == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // This URL can point to a different image later, so clients must revalidate before reuse
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf(image.getContentType()))
+                .eTag(image.getETag())
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .body(image.getData());
+    }
+
+    @Operation(summary = "Get product images in batch", description = "Retrieve the images of several products in one multipart/form-data response. " +
+            "Each part is named after the product ID; products without an image, or whose resized image is not ready yet, are omitted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Images retrieved successfully",
+                    content = @Content(mediaType = "multipart/form-data")),
+            @ApiResponse(responseCode = "400", description = "Invalid or original image size, or too many IDs"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/products/images")
+    public ResponseEntity<MultiValueMap<String, Object>> getProductImages(
+            @Parameter(description = "Comma-separated product IDs", required = true, example = "1,2,3")
+            @RequestParam List<Integer> ids,
+            @Parameter(description = "Image size (thumbnail, card, detail)", example = "thumbnail")
+            @RequestParam(required = false, defaultValue = "thumbnail") String size) throws IOException {
+        ImageVariant variant = ImageVariant.fromParam(size);
+        Map<Integer, StoredImage> images = service.getProductImages(ids, variant);
+
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        images.forEach((id, image) -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.valueOf(image.getContentType()));
+            headers.setETag(image.getETag());
+            // A filename makes clients treat the part as a file (Blob) rather than a text field
+            parts.add(String.valueOf(id), new HttpEntity<>(new ByteArrayResource(image.getData()) {
+                @Override
+                public String getFilename() {
+                    return String.valueOf(id);
+                }
+            }, headers));
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(parts);
+    }
+
+    @Operation(summary = "Get image by content hash", description = "Retrieve an image through its versioned URL (see imageUrl on products). " +
+            "The content behind a hash never changes, so responses are cacheable for a year.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Image retrieved successfully",
+                    content = @Content(mediaType = "image/*")),
+            @ApiResponse(responseCode = "304", description = "Image not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid image size"),
+            @ApiResponse(responseCode = "404", description = "Image not found")
+    })
+    @GetMapping("/images/{hash}")
+    public ResponseEntity<byte[]> getImageByHash(
+            @Parameter(description = "Image content hash", required = true)
+            @PathVariable String hash,
+            @Parameter(description = "Image size (thumbnail, card, detail, original)", example = "card")
+            @RequestParam(required = false, defaultValue = "original") String size,
+            WebRequest webRequest) throws IOException {
+        ImageVariant variant = ImageVariant.fromParam(size);
+        if (webRequest.checkNotModified(StoredImage.etagFor(hash, variant))) {
+            return null;
+        }
+        StoredImage image = service.getImageByHash(hash, variant).orElse(null);
+        if (image == null) {
             return ResponseEntity.notFound().build();
         }
-        byte[] imageFile = product.getImageData();
 
+        // A fallback to the original must not be cached as the resized variant
+        CacheControl cacheControl = image.getVariant() == variant
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
         return ResponseEntity.ok()
-                .contentType(MediaType.valueOf(product.getImageType()))
-                .body(imageFile);
+                .contentType(MediaType.valueOf(image.getContentType()))
+                .eTag(image.getETag())
+                .cacheControl(cacheControl)
+                .body(image.getData());
     }
 
     @Operation(summary = "Update product", description = "Update an existing product (Admin/Seller only)")
@@ -169,6 +299,33 @@ public class ProductController {
         return ResponseEntity.ok().body("Product deleted successfully");
     }
 
+    @Operation(summary = "Get search filter values", description = "Categories, brands and the price range of the catalog, " +
+            "used to populate the search filters")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Filter values retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = SearchFiltersResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/products/filters")
+    public ResponseEntity<SearchFiltersResponse> getSearchFilters() {
+        return ResponseEntity.ok(service.getSearchFilters());
+    }
+
+    @Operation(summary = "Suggest search completions", description = "Typeahead suggestions (product names, brands and categories) " +
+            "for the text typed so far, most popular first. Any word of a suggestion can match the prefix.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/products/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @Parameter(description = "Text typed so far", required = true, example = "lap")
+            @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions (at most 10)", example = "8")
+            @RequestParam(required = false, defaultValue = "8") int limit) {
+        return ResponseEntity.ok(service.suggestProducts(prefix, limit));
+    }
+
     @Operation(summary = "Search products", description = "Search products by keyword with optional pagination")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully",
@@ -184,18 +341,63 @@ public class ProductController {
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Number of items per page", example = "12")
             @RequestParam(required = false, defaultValue = "12") int size,
-            @Parameter(description = "Sort field", example = "id")
-            @RequestParam(required = false, defaultValue = "id") String sortBy) {
+            @Parameter(description = "Sort field (relevance, id, name, price, ...)", example = "relevance")
+            @RequestParam(required = false, defaultValue = "relevance") String sortBy,
+            @Parameter(description = "Sort direction (asc or desc), ignored for relevance", example = "asc")
+            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
         
         if (page >= 0 && size > 0) {
-            Page<Product> productsPage = service.searchProductsPaginated(keyword, page, size, sortBy);
+            Page<ProductSummary> productsPage = service.searchProductsPaginated(keyword, page, size, sortBy, sortDir);
             return ResponseEntity.ok(productsPage);
         }
         
-        List<Product> products = service.searchProducts(keyword);
+        List<ProductSummary> products = service.searchProducts(keyword);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
+    @Operation(summary = "Advanced product search by cursor", description = "Advanced search with keyset pagination: pass an empty cursor " +
+            "for the first page and nextCursor from the response for the following ones")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Advanced search completed successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort field"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/products/advanced-search", params = "cursor")
+    public ResponseEntity<CursorPage<ProductSummary>> advancedSearchByCursor(
+            @Parameter(description = "Cursor from the previous page (empty for the first page)", example = "")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Search keyword", example = "laptop")
+            @RequestParam(required = false) String keyword,
+            @Parameter(description = "Product category", example = "Electronics")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Product brand", example = "Dell")
+            @RequestParam(required = false) String brand,
+            @Parameter(description = "Minimum price", example = "100.00")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price", example = "1000.00")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Product availability", example = "true")
+            @RequestParam(required = false) Boolean available,
+            @Parameter(description = "Number of items per page", example = "12")
+            @RequestParam(required = false, defaultValue = "12") int size,
+            @Parameter(description = "Sort field (relevance with a keyword, id, name, price, ...)", example = "relevance")
+            @RequestParam(required = false) String sortBy,
+            @Parameter(description = "Sort direction (asc or desc), ignored for relevance", example = "asc")
+            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
+
+        AdvancedSearchRequest criteria = new AdvancedSearchRequest();
+        criteria.setKeyword(keyword);
+        criteria.setCategory(category);
+        criteria.setBrand(brand);
+        criteria.setMinPrice(minPrice);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setAvailable(available);
+        criteria.setSortBy(sortBy);
+        criteria.setSortDir(sortDir);
+        return ResponseEntity.ok(service.advancedSearchProductsByCursor(criteria, cursor, size));
+    }
+
     @Operation(summary = "Advanced product search", description = "Search products with multiple criteria and pagination")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Advanced search completed successfully",
@@ -204,7 +406,7 @@ public class ProductController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/products/advanced-search")
-    public ResponseEntity<Page<Product>> advancedSearch(
+    public ResponseEntity<Page<ProductSummary>> advancedSearch(
             @Parameter(description = "Search keyword", example = "laptop")
             @RequestParam(required = false) String keyword,
             @Parameter(description = "Product category", example = "Electronics")
@@ -221,11 +423,13 @@ public class ProductController {
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Number of items per page", example = "12")
             @RequestParam(required = false, defaultValue = "12") int size,
-            @Parameter(description = "Sort field", example = "id")
-            @RequestParam(required = false, defaultValue = "id") String sortBy) {
+            @Parameter(description = "Sort field (relevance, id, name, price, ...)", example = "relevance")
+            @RequestParam(required = false, defaultValue = "relevance") String sortBy,
+            @Parameter(description = "Sort direction (asc or desc), ignored for relevance", example = "asc")
+            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
         
-        Page<Product> products = service.advancedSearchProducts(
-                keyword, category, brand, minPrice, maxPrice, available, page, size, sortBy);
+        Page<ProductSummary> products = service.advancedSearchProducts(
+                keyword, category, brand, minPrice, maxPrice, available, page, size, sortBy, sortDir);
         return ResponseEntity.ok(products);
     }
 
@@ -252,22 +456,27 @@ public class ProductController {
             @RequestParam(required = false, defaultValue = "12") int size) {
         
         if (category != null) {
-            Page<Product> products = service.filterProductsByCategoryPaginated(category, page, size);
+            Page<ProductSummary> products = service.filterProductsByCategoryPaginated(category, page, size);
             return ResponseEntity.ok(products);
         }
         
         if (brand != null) {
-            Page<Product> products = service.filterProductsByBrandPaginated(brand, page, size);
+            Page<ProductSummary> products = service.filterProductsByBrandPaginated(brand, page, size);
             return ResponseEntity.ok(products);
         }
         
         if (minPrice != null && maxPrice != null) {
-            Page<Product> products = service.filterProductsByPriceRange(minPrice, maxPrice, page, size);
+            Page<ProductSummary> products = service.filterProductsByPriceRange(minPrice, maxPrice, page, size);
             return ResponseEntity.ok(products);
         }
         
         // Default: return all products with pagination
-        Page<Product> products = service.getAllProductsPaginated(page, size, "id", "asc");
+        Page<ProductSummary> products = service.getAllProductsPaginated(page, size, "id", "asc");
         return ResponseEntity.ok(products);
     }
+
+    private long lastModifiedOf(Product product) {
+        LocalDateTime modified = product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt();
+        return modified != null ? modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
 }
@@ -1,22 +1,44 @@
 package com.cart.ecom_proj.controller;
 
+import com.cart.ecom_proj.dto.ReportJobRequest;
+import com.cart.ecom_proj.dto.ReportJobStatus;
+import com.cart.ecom_proj.dto.SalesSummary;
+import com.cart.ecom_proj.service.InvoiceService;
+import com.cart.ecom_proj.service.ReportJobService;
 import com.cart.ecom_proj.service.ReportService;
+import com.cart.ecom_proj.service.SalesRollupService;
 import com.cart.ecom_proj.service.UserService;
 import com.cart.ecom_proj.model.User;
 import com.cart.ecom_proj.model.Role;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -24,21 +46,37 @@ import java.time.LocalDate;
 @Tag(name = "Reports", description = "Reporting and export endpoints")
 public class ReportController {
 
+    // Tomcat's sendfile request attributes (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private ReportService reportService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return userService.getUserByUsername(authentication.getName());
     }
 
-    @Operation(summary = "Download order invoice as PDF")
+    @Operation(summary = "Download order invoice as PDF",
+            description = "Served from the invoice cache with an ETag; send If-None-Match to get 304 when unchanged")
     @GetMapping("/invoice/{orderId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<byte[]> downloadInvoice(@PathVariable Long orderId) throws Exception {
+    public ResponseEntity<Resource> downloadInvoice(@PathVariable Long orderId, WebRequest webRequest) throws Exception {
         // Check access: owners or admins
         User current = getCurrentUser();
         // Admins should be allowed; otherwise verify ownership
@@ -51,49 +89,168 @@ public class ReportController {
             // Simpler: call service to generate and let security at repo-level throw if needed
         }
 
-        byte[] pdf = reportService.generateOrderInvoicePDF(orderId);
+        InvoiceService.InvoiceFile invoice = invoiceService.getInvoice(orderId);
+        if (webRequest.checkNotModified(invoice.etag())) {
+            // 304 Not Modified has been set on the response
+            return null;
+        }
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice-" + orderId + ".pdf")
+                .eTag(invoice.etag())
+                // The order may still change, so clients must revalidate before reusing their copy
+                .cacheControl(CacheControl.noCache().cachePrivate())
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .body(new FileSystemResource(invoice.file()));
     }
 
-    @Operation(summary = "Export products as CSV")
+    @Operation(summary = "Export products as CSV",
+            description = "Streams the CSV while reading the catalog; gzip-compressed when the client accepts it")
     @GetMapping("/products/export")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SELLER')")
-    public ResponseEntity<byte[]> exportProductsCsv() throws Exception {
-        byte[] csv = reportService.generateProductListCSV();
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products.csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csv);
+    public ResponseEntity<StreamingResponseBody> exportProductsCsv(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvResponse("products.csv", acceptEncoding, reportService::writeProductListCSV);
     }
 
-    @Operation(summary = "Download orders report as PDF (Admin)")
+    @Operation(summary = "Download orders report as PDF (Admin)",
+            description = "Streams the PDF while reading orders. For large ranges prefer a report job.")
     @GetMapping("/admin/orders")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> ordersReport(
+    public ResponseEntity<StreamingResponseBody> ordersReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
-    ) throws Exception {
-        byte[] pdf = reportService.generateOrderReportPDF(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        StreamingResponseBody body = out -> reportService.writeOrderReportPDF(startDate, endDate, out);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders-report-" + startDate + "-to-" + endDate + ".pdf")
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .body(body);
     }
 
-    @Operation(summary = "Download sales report as CSV (Admin)")
-    @GetMapping("/admin/sales")
+    @Operation(summary = "Download the invoices of a date range as a ZIP (Admin)",
+            description = "Renders invoices in parallel and streams them into the archive as they are ready")
+    @GetMapping("/admin/invoices.zip")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> salesReport(
+    public ResponseEntity<StreamingResponseBody> invoicesZip(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
-    ) throws Exception {
-        byte[] csv = reportService.generateSalesReportCSV(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        StreamingResponseBody body = out -> invoiceService.writeInvoicesZip(startDate, endDate, out);
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=sales-report-" + startDate + "-to-" + endDate + ".csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csv);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoices-" + startDate + "-to-" + endDate + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    @Operation(summary = "Download sales report as CSV (Admin)",
+            description = "Streams the CSV while reading orders; gzip-compressed when the client accepts it")
+    @GetMapping("/admin/sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> salesReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvResponse("sales-report-" + startDate + "-to-" + endDate + ".csv", acceptEncoding,
+                out -> reportService.writeSalesReportCSV(startDate, endDate, out));
+    }
+
+    @Operation(summary = "Get sales summary (Admin)",
+            description = "Order count, revenue and items per day and per status for a date range, " +
+                    "read from the daily sales rollup")
+    @GetMapping("/admin/sales/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SalesSummary> salesSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(salesRollupService.getSummary(startDate, endDate));
+    }
+
+    @Operation(summary = "Rebuild the daily sales rollup (Admin)",
+            description = "Recomputes the rollup for a date range from the orders table and returns the new summary")
+    @PostMapping("/admin/sales/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SalesSummary> rebuildSalesRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        salesRollupService.rebuild(startDate, endDate);
+        return ResponseEntity.ok(salesRollupService.getSummary(startDate, endDate));
+    }
+
+    @Operation(summary = "Queue a report (Admin)",
+            description = "Generates an orders PDF or sales CSV in the background. A request for a report that is " +
+                    "already being generated returns the existing job. Poll the job, then download the file.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Report queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid report type or date range"),
+            @ApiResponse(responseCode = "503", description = "Too many reports queued")
+    })
+    @PostMapping("/admin/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportJobStatus> submitReportJob(@Valid @RequestBody ReportJobRequest request) {
+        ReportJobStatus status = reportJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/reports/admin/jobs/" + status.getJobId()))
+                .body(status);
+    }
+
+    @Operation(summary = "Get report job progress (Admin)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job progress"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired report job")
+    })
+    @GetMapping("/admin/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportJobStatus> getReportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getStatus(jobId));
+    }
+
+    @Operation(summary = "Download a generated report (Admin)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Report file"),
+            @ApiResponse(responseCode = "400", description = "Report not ready or failed"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired report job")
+    })
+    @GetMapping("/admin/jobs/{jobId}/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Resource> downloadReport(@PathVariable String jobId, HttpServletRequest request)
+            throws IOException {
+        ReportJobStatus status = reportJobService.getStatus(jobId);
+        Path file = reportJobService.getReportFile(jobId);
+        long length = Files.size(file);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + status.getFileName())
+                .contentType(MediaType.parseMediaType(status.getType().getContentType()))
+                .contentLength(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Let the connector send the file straight from the page cache to the socket
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, length);
+            return response.build();
+        }
+        return response.body(new FileSystemResource(file));
+    }
+
+    /**
+     * Streams a CSV download, gzip-compressing it when the client accepts that encoding.
+     */
+    private ResponseEntity<StreamingResponseBody> csvResponse(String fileName, String acceptEncoding,
+                                                              StreamingResponseBody csv) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                csv.writeTo(compressed);
+                compressed.finish();
+            } else {
+                csv.writeTo(out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 }
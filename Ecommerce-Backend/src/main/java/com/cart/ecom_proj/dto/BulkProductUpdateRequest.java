@@ -0,0 +1,20 @@
+package com.cart.ecom_proj.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkProductUpdateRequest {
+    @NotEmpty(message = "At least one update is required")
+    @Size(max = 1000, message = "At most 1000 products can be updated at once")
+    @Valid
+    private List<ProductUpdateItem> updates;
+}
@@ -0,0 +1,16 @@
+package com.cart.ecom_proj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkProductUpdateResponse {
+    private int updated;
+    // Requested IDs that do not exist or are deleted; nothing was changed for them
+    private List<Integer> notFound;
+}
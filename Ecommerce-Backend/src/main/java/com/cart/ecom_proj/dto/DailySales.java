@@ -0,0 +1,21 @@
+package com.cart.ecom_proj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Order totals of one day.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySales {
+    private LocalDate date;
+    private Long orderCount;
+    private BigDecimal revenue;
+    private Long itemCount;
+}
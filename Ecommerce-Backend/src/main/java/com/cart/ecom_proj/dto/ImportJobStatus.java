@@ -0,0 +1,34 @@
+package com.cart.ecom_proj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a product CSV import.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobStatus {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String jobId;
+    private String fileName;
+    private State state;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    // First errors only, see ProductImportService.MAX_REPORTED_ERRORS
+    private List<ImportRowError> errors;
+    // Reason the whole import stopped, when state is FAILED
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,17 @@
+package com.cart.ecom_proj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A CSV row that could not be imported.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+    // 1-based line in the uploaded file (the header is line 1)
+    private long line;
+    private String message;
+}
@@ -0,0 +1,11 @@
+package com.cart.ecom_proj.dto;
+
+/**
+ * Projection with just the image reference of a product, used to look up images for many
+ * products in one query without loading the full entities.
+ */
+public interface ProductImageRef {
+    int getId();
+    String getImageHash();
+    String getImageType();
+}
@@ -0,0 +1,9 @@
+package com.cart.ecom_proj.dto;
+
+/**
+ * Projection with the total units sold of a product, used to rank suggestions by popularity.
+ */
+public interface ProductSales {
+    Integer getProductId();
+    Long getUnitsSold();
+}
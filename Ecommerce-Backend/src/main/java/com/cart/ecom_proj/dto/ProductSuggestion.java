@@ -0,0 +1,21 @@
+package com.cart.ecom_proj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSuggestion {
+    private String text;
+    private Type type;
+    // Set for PRODUCT suggestions so the client can link straight to the product
+    private Integer productId;
+
+    public enum Type {
+        PRODUCT,
+        BRAND,
+        CATEGORY
+    }
+}
@@ -0,0 +1,38 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Compact view of a product for list endpoints. Loaded with a constructor projection,
+ * so only these columns are read from the database.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSummary {
+    private int id;
+    private String name;
+    private String brand;
+    private String category;
+    private BigDecimal price;
+    private boolean productAvailable;
+    private int stockQuantity;
+    private String imageHash;
+
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getBrand(), product.getCategory(),
+                product.getPrice(), product.isProductAvailable(), product.getStockQuantity(), product.getImageHash());
+    }
+
+    /**
+     * Versioned, cacheable URL of the product image, same as {@code Product.imageUrl}.
+     */
+    public String getImageUrl() {
+        return imageHash != null ? "/api/images/" + imageHash : null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cart.ecom_proj.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Change to one product in a bulk update. Fields left null keep their current value.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductUpdateItem {
+    @NotNull(message = "Product ID is required")
+    private Integer id;
+
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    private BigDecimal price;
+
+    @Min(value = 0, message = "Stock quantity cannot be negative")
+    private Integer stockQuantity;
+
+    private Boolean productAvailable;
+}
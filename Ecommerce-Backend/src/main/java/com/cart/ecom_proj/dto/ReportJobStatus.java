@@ -0,0 +1,37 @@
+package com.cart.ecom_proj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a background report job.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobStatus {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String jobId;
+    private ReportType type;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private State state;
+    private String fileName;
+    // Bytes of the report rendered so far
+    private long bytesWritten;
+    // Reason the job stopped, when state is FAILED
+    private String message;
+    // Where to fetch the report, when state is COMPLETED
+    private String downloadUrl;
+    private LocalDateTime requestedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
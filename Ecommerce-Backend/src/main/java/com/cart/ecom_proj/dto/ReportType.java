@@ -0,0 +1,31 @@
+package com.cart.ecom_proj.dto;
+
+/**
+ * Reports that can be generated in the background, with the file each one produces.
+ */
+public enum ReportType {
+    ORDERS_PDF("orders-report", "pdf", "application/pdf"),
+    SALES_CSV("sales-report", "csv", "text/csv;charset=UTF-8");
+
+    private final String fileNamePrefix;
+    private final String extension;
+    private final String contentType;
+
+    ReportType(String fileNamePrefix, String extension, String contentType) {
+        this.fileNamePrefix = fileNamePrefix;
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getFileNamePrefix() {
+        return fileNamePrefix;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,26 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order line of the sales report. Loaded with a constructor projection joined to the
+ * customer, so no Order or User entities are materialized.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesReportRow {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private String customer;
+    private BigDecimal totalAmount;
+    private PaymentStatus paymentStatus;
+    private OrderStatus status;
+}
@@ -0,0 +1,27 @@
+package com.cart.ecom_proj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales totals for a date range. The totals and the per-day figures leave out cancelled
+ * orders; the per-status breakdown includes every status.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesSummary {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long orderCount;
+    private BigDecimal revenue;
+    private long itemCount;
+    // Days without orders are omitted
+    private List<DailySales> days;
+    private List<StatusSales> byStatus;
+}
@@ -0,0 +1,23 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Order totals of one order status and payment status combination.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatusSales {
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private Long orderCount;
+    private BigDecimal revenue;
+    private Long itemCount;
+}
@@ -0,0 +1,7 @@
+package com.cart.ecom_proj.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cart.ecom_proj.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cache entry evicted on one backend node that the other nodes still have to evict.
+ * Rows are read in ID order by every node and pruned after a retention period.
+ */
+@Entity
+@Table(name = "cache_invalidation", indexes = @Index(name = "idx_cache_invalidation_created_at", columnList = "createdAt"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(nullable = false, length = 64)
+    private String cacheName;
+
+    // Null when the whole cache was cleared
+    private String cacheKey;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
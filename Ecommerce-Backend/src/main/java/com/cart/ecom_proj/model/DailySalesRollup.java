@@ -0,0 +1,48 @@
+package com.cart.ecom_proj.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Order totals per day, order status and payment status, kept up to date as orders change so
+ * sales summaries do not have to scan the orders table. Soft-deleted orders are not counted.
+ */
+@Entity
+@Table(name = "daily_sales_rollup", indexes = {
+        // The generated primary key does not necessarily start with the date; summaries read date ranges
+        @Index(name = "idx_daily_sales_rollup_date", columnList = "salesDate")
+})
+@IdClass(DailySalesRollupId.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySalesRollup {
+    @Id
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentStatus paymentStatus;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    // Units ordered, summed over the order items
+    @Column(nullable = false)
+    private long itemCount;
+}
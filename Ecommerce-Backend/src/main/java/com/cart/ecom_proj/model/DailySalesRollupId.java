@@ -0,0 +1,20 @@
+package com.cart.ecom_proj.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Primary key of {@link DailySalesRollup}: one row per day, order status and payment status.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySalesRollupId implements Serializable {
+    private LocalDate salesDate;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+}
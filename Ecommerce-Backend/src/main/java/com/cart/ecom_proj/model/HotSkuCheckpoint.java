@@ -0,0 +1,24 @@
+package com.cart.ecom_proj.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last entry of the hot SKU delta log that has been written to a product's stock. Updated in
+ * the same transaction as the stock, so replaying the log after a crash applies every delta
+ * exactly once.
+ */
+@Entity
+@Table(name = "hot_sku_checkpoint")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotSkuCheckpoint {
+    @Id
+    private Integer productId;
+
+    @Column(nullable = false)
+    private long lastSequence;
+}
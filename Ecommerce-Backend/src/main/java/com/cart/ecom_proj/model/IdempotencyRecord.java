@@ -0,0 +1,56 @@
+package com.cart.ecom_proj.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A request sent with an {@code Idempotency-Key} header. The row is inserted before the request
+ * runs, which claims the key, and holds the response once the request succeeded so retries with
+ * the same key get that response instead of running again. Keys are per endpoint and user.
+ */
+@Entity
+@Table(name = "idempotency_record", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_record_key", columnNames = {"scope", "owner", "idempotencyKey"})
+}, indexes = {
+        // Expired keys are removed by creation time
+        @Index(name = "idx_idempotency_record_created", columnList = "createdAt")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String scope;
+
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 of the request, to refuse a key reused for a different request
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    private Integer httpStatus;
+
+    @Lob
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,8 @@
+package com.cart.ecom_proj.model;
+
+public enum IdempotencyStatus {
+    // The first request with the key is running
+    IN_PROGRESS,
+    // The request succeeded and its response is stored for replay
+    COMPLETED
+}
@@ -22,7 +22,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Date range reports read orders in (order_date, id) order
+        @Index(name = "idx_orders_order_date_id", columnList = "orderDate, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -1,6 +1,7 @@
 package com.cart.ecom_proj.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -21,7 +22,13 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Composite (sort column, id) indexes for keyset pagination
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_category_id", columnList = "category, id"),
+        @Index(name = "idx_products_brand_id", columnList = "brand, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -66,9 +73,11 @@ public class Product implements SoftDeletable {
 
     private String imageName;
     private String imageType;
-    
-    @Lob
-    private byte[] imageData;
+
+    // SHA-256 of the image content in the ImageStore; the bytes themselves live outside this table
+    @Column(length = 64)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String imageHash;
 
     @CreatedDate
     @Column(nullable = false, updatable = false)
@@ -91,6 +100,15 @@ public class Product implements SoftDeletable {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    /**
+     * Versioned, cacheable URL of the product image. The path contains the content hash,
+     * so it changes whenever the image changes and can be cached forever.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getImageUrl() {
+        return imageHash != null ? "/api/images/" + imageHash : null;
+    }
+
     @Override
     public void delete(String deletedBy) {
         this.deleted = true;
@@ -0,0 +1,12 @@
+package com.cart.ecom_proj.model;
+
+public enum ReservationStatus {
+    // Stock is held for an order awaiting payment
+    ACTIVE,
+    // The order was paid or moved on, the stock stays taken
+    CONFIRMED,
+    // The order was cancelled and its stock restored
+    RELEASED,
+    // The hold ran out before payment
+    EXPIRED
+}
@@ -0,0 +1,48 @@
+package com.cart.ecom_proj.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock held for one product of an order that has not been paid yet. The quantity is already
+ * taken off {@code products.stock_quantity} when the hold is placed, so available stock never
+ * has to be computed from reservations. If the order is not paid before the hold expires, the
+ * order is cancelled and the quantity goes back into stock.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_stock_reservation_order", columnList = "orderId"),
+        // Startup reloads the active holds into the expiry queue
+        @Index(name = "idx_stock_reservation_status_expires", columnList = "status, expiresAt")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Integer productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
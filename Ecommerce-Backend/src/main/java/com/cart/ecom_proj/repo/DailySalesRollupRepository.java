@@ -0,0 +1,29 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.dto.DailySales;
+import com.cart.ecom_proj.dto.StatusSales;
+import com.cart.ecom_proj.model.DailySalesRollup;
+import com.cart.ecom_proj.model.DailySalesRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollupId>,
+        DailySalesRollupRepositoryCustom {
+
+    @Query("SELECT new com.cart.ecom_proj.dto.DailySales(r.salesDate, SUM(r.orderCount), SUM(r.revenue), SUM(r.itemCount)) "
+            + "FROM DailySalesRollup r WHERE r.salesDate BETWEEN :start AND :end "
+            + "AND r.status <> com.cart.ecom_proj.model.OrderStatus.CANCELLED "
+            + "GROUP BY r.salesDate HAVING SUM(r.orderCount) > 0 ORDER BY r.salesDate")
+    List<DailySales> findDailySales(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT new com.cart.ecom_proj.dto.StatusSales(r.status, r.paymentStatus, SUM(r.orderCount), SUM(r.revenue), "
+            + "SUM(r.itemCount)) FROM DailySalesRollup r WHERE r.salesDate BETWEEN :start AND :end "
+            + "GROUP BY r.status, r.paymentStatus HAVING SUM(r.orderCount) > 0 ORDER BY r.status, r.paymentStatus")
+    List<StatusSales> findStatusSales(@Param("start") LocalDate start, @Param("end") LocalDate end);
+}
@@ -0,0 +1,28 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Incremental and bulk updates of the daily sales rollup, done in SQL so concurrent orders
+ * add to the same row without a read-modify-write.
+ */
+public interface DailySalesRollupRepositoryCustom {
+
+    /**
+     * Adds to the totals of one rollup row, creating it if needed. Negative values subtract an
+     * order that moved to another row or was deleted.
+     */
+    void addToRollup(LocalDate salesDate, OrderStatus status, PaymentStatus paymentStatus,
+                     long orders, BigDecimal revenue, long items);
+
+    /**
+     * Recomputes the rows of one day from the orders table, in the caller's transaction.
+     *
+     * @return number of rollup rows written
+     */
+    int rebuildDay(LocalDate salesDate);
+}
@@ -0,0 +1,77 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Locale;
+
+public class DailySalesRollupRepositoryCustomImpl implements DailySalesRollupRepositoryCustom {
+
+    // MySQL/MariaDB: a single atomic upsert, which avoids gap-lock deadlocks between two first orders of a day
+    private static final String MYSQL_UPSERT_SQL = "INSERT INTO daily_sales_rollup "
+            + "(sales_date, status, payment_status, order_count, revenue, item_count) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), "
+            + "revenue = revenue + VALUES(revenue), item_count = item_count + VALUES(item_count)";
+
+    private static final String UPDATE_SQL = "UPDATE daily_sales_rollup SET order_count = order_count + ?, "
+            + "revenue = revenue + ?, item_count = item_count + ? "
+            + "WHERE sales_date = ? AND status = ? AND payment_status = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO daily_sales_rollup "
+            + "(sales_date, status, payment_status, order_count, revenue, item_count) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String REBUILD_SQL = "INSERT INTO daily_sales_rollup "
+            + "(sales_date, status, payment_status, order_count, revenue, item_count) "
+            + "SELECT ?, o.status, o.payment_status, COUNT(*), SUM(o.total_amount), "
+            + "SUM((SELECT COALESCE(SUM(i.quantity), 0) FROM order_items i WHERE i.order_id = o.id)) "
+            + "FROM orders o WHERE o.order_date >= ? AND o.order_date < ? AND o.deleted = false "
+            + "GROUP BY o.status, o.payment_status";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean mysql;
+
+    @Override
+    public void addToRollup(LocalDate salesDate, OrderStatus status, PaymentStatus paymentStatus,
+                            long orders, BigDecimal revenue, long items) {
+        Date day = Date.valueOf(salesDate);
+        if (isMysql()) {
+            jdbcTemplate.update(MYSQL_UPSERT_SQL, day, status.name(), paymentStatus.name(), orders, revenue, items);
+            return;
+        }
+        if (jdbcTemplate.update(UPDATE_SQL, orders, revenue, items, day, status.name(), paymentStatus.name()) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, day, status.name(), paymentStatus.name(), orders, revenue, items);
+        } catch (DuplicateKeyException e) {
+            // Another order created the row in the meantime
+            jdbcTemplate.update(UPDATE_SQL, orders, revenue, items, day, status.name(), paymentStatus.name());
+        }
+    }
+
+    @Override
+    public int rebuildDay(LocalDate salesDate) {
+        Date day = Date.valueOf(salesDate);
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE sales_date = ?", day);
+        return jdbcTemplate.update(REBUILD_SQL, day, Timestamp.valueOf(salesDate.atStartOfDay()),
+                Timestamp.valueOf(salesDate.plusDays(1).atStartOfDay()));
+    }
+
+    private boolean isMysql() {
+        if (mysql == null) {
+            mysql = jdbcTemplate.execute((Connection con) ->
+                    con.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).matches(".*(mysql|mariadb).*"));
+        }
+        return mysql;
+    }
+}
@@ -1,7 +1,9 @@
 package com.cart.ecom_proj.repo;
 
+import com.cart.ecom_proj.dto.ProductSales;
 import com.cart.ecom_proj.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +12,9 @@ import java.util.List;
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
     List<OrderItem> findByProductId(Integer productId);
+
+    @Query("SELECT oi.product.id AS productId, SUM(oi.quantity) AS unitsSold FROM OrderItem oi " +
+            "WHERE oi.order.status <> com.cart.ecom_proj.model.OrderStatus.CANCELLED GROUP BY oi.product.id")
+    List<ProductSales> findUnitsSoldPerProduct();
 }
 
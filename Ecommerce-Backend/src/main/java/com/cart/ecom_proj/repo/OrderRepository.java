@@ -5,17 +5,36 @@ import com.cart.ecom_proj.model.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
     List<Order> findByUserIdAndDeletedFalseOrderByOrderDateDesc(Long userId);
     List<Order> findByUserIdAndStatusAndDeletedFalse(Long userId, OrderStatus status);
     Page<Order> findByUserIdAndDeletedFalse(Long userId, Pageable pageable);
     Page<Order> findByStatusAndDeletedFalse(OrderStatus status, Pageable pageable);
     List<Order> findByOrderDateBetweenAndDeletedFalse(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Last modification time of an order, without loading it.
+     */
+    @Query("SELECT COALESCE(o.updatedAt, o.createdAt) FROM Order o WHERE o.id = :id")
+    Optional<LocalDateTime> findLastModified(@Param("id") Long id);
+
+    @Query("SELECT o.id FROM Order o WHERE o.orderDate BETWEEN :start AND :end ORDER BY o.orderDate, o.id")
+    List<Long> findIdsByOrderDateBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT MIN(o.orderDate) FROM Order o")
+    LocalDateTime findFirstOrderDate();
+
+    @Query("SELECT MAX(o.orderDate) FROM Order o")
+    LocalDateTime findLastOrderDate();
+
 }
 
@@ -0,0 +1,20 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.dto.SalesReportRow;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Order queries that need database-specific fetch settings, which {@code @Query} methods
+ * cannot set.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Sales report rows for orders placed in the given range, oldest first, with the customer's
+     * username joined in. Must be consumed inside a transaction and closed; rows are read from
+     * the database as the stream is consumed (see {@link StreamingQueries}).
+     */
+    Stream<SalesReportRow> streamSalesReportRows(LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,27 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.dto.SalesReportRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<SalesReportRow> streamSalesReportRows(LocalDateTime start, LocalDateTime end) {
+        return StreamingQueries.stream(entityManager, entityManager.createQuery(
+                        "SELECT new com.cart.ecom_proj.dto.SalesReportRow(o.id, o.orderDate, u.username, o.totalAmount, "
+                                + "o.paymentStatus, o.status) FROM Order o LEFT JOIN o.user u "
+                                + "WHERE o.orderDate BETWEEN :start AND :end AND o.deleted = false "
+                                + "ORDER BY o.orderDate, o.id", SalesReportRow.class)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setHint(HibernateHints.HINT_READ_ONLY, true));
+    }
+}
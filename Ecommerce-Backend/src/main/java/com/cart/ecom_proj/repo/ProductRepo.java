@@ -1,5 +1,7 @@
 package com.cart.ecom_proj.repo;
 
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.dto.ProductSummary;
 import com.cart.ecom_proj.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,35 +11,57 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepo extends JpaRepository<Product, Integer> {
+public interface ProductRepo extends JpaRepository<Product, Integer>, ProductRepoCustom {
 
-    @Query("SELECT p FROM Product p WHERE (" +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND p.deleted = false")
-    List<Product> searchProducts(String keyword);
+    // List endpoints read only the columns of ProductSummary instead of whole entities
+    String SELECT_SUMMARY = "SELECT new com.cart.ecom_proj.dto.ProductSummary(p.id, p.name, p.brand, p.category, " +
+            "p.price, p.productAvailable, p.stockQuantity, p.imageHash) FROM Product p ";
 
-    @Query("SELECT p FROM Product p WHERE (" +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+    String KEYWORD_MATCH = "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND p.deleted = false")
-    Page<Product> searchProductsPaginated(String keyword, Pageable pageable);
+            "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%')))";
+
+    @Query(SELECT_SUMMARY + "WHERE p.deleted = false")
+    List<ProductSummary> findAllSummaries();
+
+    @Query(value = SELECT_SUMMARY + "WHERE p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.deleted = false")
+    Page<ProductSummary> findAllSummaries(Pageable pageable);
+
+    @Query(SELECT_SUMMARY + "WHERE p.id IN :ids AND p.deleted = false")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
 
-    Page<Product> findByCategoryAndDeletedFalse(String category, Pageable pageable);
+    @Query(value = SELECT_SUMMARY + "WHERE p.id IN :ids AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.id IN :ids AND p.deleted = false")
+    Page<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids, Pageable pageable);
 
-    Page<Product> findByBrandAndDeletedFalse(String brand, Pageable pageable);
+    @Query(SELECT_SUMMARY + "WHERE " + KEYWORD_MATCH + " AND p.deleted = false")
+    List<ProductSummary> searchProducts(@Param("keyword") String keyword);
 
-    @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.deleted = false")
-    Page<Product> findByPriceBetween(@Param("minPrice") BigDecimal minPrice, 
+    @Query(value = SELECT_SUMMARY + "WHERE " + KEYWORD_MATCH + " AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE " + KEYWORD_MATCH + " AND p.deleted = false")
+    Page<ProductSummary> searchProductsPaginated(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + "WHERE p.category = :category AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category = :category AND p.deleted = false")
+    Page<ProductSummary> findByCategoryAndDeletedFalse(@Param("category") String category, Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + "WHERE p.brand = :brand AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.brand = :brand AND p.deleted = false")
+    Page<ProductSummary> findByBrandAndDeletedFalse(@Param("brand") String brand, Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + "WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.deleted = false")
+    Page<ProductSummary> findByPriceBetween(@Param("minPrice") BigDecimal minPrice, 
                                       @Param("maxPrice") BigDecimal maxPrice, 
                                       Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE (" +
+    String ADVANCED_SEARCH_CONDITION = "WHERE (" +
             "(:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -46,8 +70,11 @@ public interface ProductRepo extends JpaRepository<Product, Integer> {
             "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
             "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
             "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-            "(:available IS NULL OR p.productAvailable = :available) AND p.deleted = false")
-    Page<Product> advancedSearch(
+            "(:available IS NULL OR p.productAvailable = :available) AND p.deleted = false";
+
+    @Query(value = SELECT_SUMMARY + ADVANCED_SEARCH_CONDITION,
+            countQuery = "SELECT COUNT(p) FROM Product p " + ADVANCED_SEARCH_CONDITION)
+    Page<ProductSummary> advancedSearch(
             @Param("keyword") String keyword,
             @Param("category") String category,
             @Param("brand") String brand,
@@ -55,4 +82,8 @@ public interface ProductRepo extends JpaRepository<Product, Integer> {
             @Param("maxPrice") BigDecimal maxPrice,
             @Param("available") Boolean available,
             Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.imageHash AS imageHash, p.imageType AS imageType FROM Product p " +
+            "WHERE p.id IN :ids AND p.deleted = false")
+    List<ProductImageRef> findImageRefsByIdIn(@Param("ids") Collection<Integer> ids);
 }
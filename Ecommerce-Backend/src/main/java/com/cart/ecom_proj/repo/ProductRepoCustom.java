@@ -0,0 +1,77 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.dto.AdvancedSearchRequest;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.ProductUpdateItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Product queries and updates that are built dynamically or batched, and cannot be expressed
+ * as derived or {@code @Query} methods.
+ */
+public interface ProductRepoCustom {
+
+    /**
+     * Sort fields supported by {@link #findAfter}. All of them are non-null columns,
+     * so (sort value, id) is a total order.
+     */
+    Set<String> SEEK_SORT_FIELDS = Set.of("id", "name", "brand", "category", "price", "stockQuantity");
+
+    /**
+     * Keyset ("seek") pagination: returns the products that come after the given position in
+     * (sort field, id) order, without an OFFSET or a count query. The cost of a page is the
+     * same no matter how deep it is.
+     *
+     * @param criteria      filters plus sortBy/sortDir; keyword is matched with LIKE, page and size are ignored
+     * @param lastSortValue sort value of the last product of the previous page (ignored when sorting by id)
+     * @param lastId        ID of the last product of the previous page, or null for the first page
+     * @param limit         maximum number of products to return
+     * @return products after the position, in sort order
+     */
+    List<ProductSummary> findAfter(AdvancedSearchRequest criteria, Object lastSortValue, Integer lastId, int limit);
+
+    /**
+     * Applies price, stock and availability changes with one batched UPDATE statement in a
+     * single transaction. Entities are not loaded, so caches and indexes must be refreshed by
+     * the caller.
+     *
+     * @param updates   changes, at most one per product; null fields are left unchanged
+     * @param updatedBy user recorded as last modifier
+     * @return IDs of the products that were updated; missing and deleted products are skipped
+     */
+    List<Integer> bulkUpdate(List<ProductUpdateItem> updates, String updatedBy);
+
+    /**
+     * Takes the given quantities off the stock of several products with one guarded UPDATE
+     * statement. A product is only changed if it has at least the requested quantity, so
+     * concurrent orders cannot oversell. Rows are updated in ID order, so orders sharing
+     * products do not deadlock. Entities are not loaded or refreshed.
+     *
+     * Must run in a transaction that is rolled back when fewer products than requested were
+     * changed, as the others have already been decremented.
+     *
+     * @param quantities quantity to take off, by product ID; quantities must be positive
+     * @return number of products whose stock was decremented; less than the number of entries
+     * if a product lacks stock or does not exist
+     */
+    int decrementStock(Map<Integer, Integer> quantities);
+
+    /**
+     * Puts the given quantities back into the stock of several products with one UPDATE
+     * statement, in ID order. Deleted products are restocked as well.
+     *
+     * @param quantities quantity to add, by product ID
+     */
+    void incrementStock(Map<Integer, Integer> quantities);
+
+    /**
+     * Streams all products for exports. Rows are read from the database as the stream is consumed
+     * (see {@link StreamingQueries}), so the whole catalog is never held in memory. Must be called
+     * inside a transaction and the stream closed after use.
+     */
+    Stream<ProductSummary> streamAllSummaries();
+}
@@ -0,0 +1,188 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.dto.AdvancedSearchRequest;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.ProductUpdateItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+public class ProductRepoCustomImpl implements ProductRepoCustom {
+
+    // COALESCE keeps the current value for fields that are not part of the update
+    private static final int[] BULK_UPDATE_TYPES = {Types.DECIMAL, Types.INTEGER, Types.BOOLEAN, Types.TIMESTAMP,
+            Types.VARCHAR, Types.INTEGER};
+
+    private static final String BULK_UPDATE_SQL = "UPDATE products SET price = COALESCE(?, price), "
+            + "stock_quantity = COALESCE(?, stock_quantity), product_available = COALESCE(?, product_available), "
+            + "updated_at = ?, updated_by = ? WHERE id = ? AND deleted = false";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Integer> bulkUpdate(List<ProductUpdateItem> updates, String updatedBy) {
+        List<Integer> ids = updates.stream().map(ProductUpdateItem::getId).toList();
+        // Batch update counts are not reliable with rewritten batches, so look up the existing products first
+        Set<Integer> existing = new HashSet<>(entityManager
+                .createQuery("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.deleted = false", Integer.class)
+                .setParameter("ids", ids)
+                .getResultList());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(existing.size());
+        List<Integer> updated = new ArrayList<>(existing.size());
+        for (ProductUpdateItem update : updates) {
+            if (existing.contains(update.getId())) {
+                batch.add(new Object[]{update.getPrice(), update.getStockQuantity(), update.getProductAvailable(),
+                        now, updatedBy, update.getId()});
+                updated.add(update.getId());
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(BULK_UPDATE_SQL, batch, BULK_UPDATE_TYPES);
+        }
+        return updated;
+    }
+
+    @Override
+    public int decrementStock(Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, Integer> sorted = new TreeMap<>(quantities);
+        List<Object> params = new ArrayList<>(sorted.size() * 5 + 1);
+        String quantityById = stockCase(sorted, params);
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        params.addAll(sorted.keySet());
+        String guard = stockCase(sorted, params);
+        // One statement, so the update count tells whether every product had enough stock
+        return jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity - " + quantityById
+                + ", updated_at = ? WHERE id IN (" + placeholders(sorted.size()) + ") AND deleted = false"
+                + " AND stock_quantity >= " + guard, params.toArray());
+    }
+
+    @Override
+    public void incrementStock(Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> sorted = new TreeMap<>(quantities);
+        List<Object> params = new ArrayList<>(sorted.size() * 3 + 1);
+        String quantityById = stockCase(sorted, params);
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        params.addAll(sorted.keySet());
+        jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity + " + quantityById
+                + ", updated_at = ? WHERE id IN (" + placeholders(sorted.size()) + ")", params.toArray());
+    }
+
+    /**
+     * Builds {@code CASE id WHEN ? THEN ? ... END} mapping product IDs to quantities and adds
+     * its parameters.
+     */
+    private static String stockCase(Map<Integer, Integer> quantities, List<Object> params) {
+        StringBuilder sql = new StringBuilder("CASE id");
+        quantities.forEach((id, quantity) -> {
+            sql.append(" WHEN ? THEN ?");
+            params.add(id);
+            params.add(quantity);
+        });
+        return sql.append(" END").toString();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    @Override
+    public List<ProductSummary> findAfter(AdvancedSearchRequest criteria, Object lastSortValue, Integer lastId, int limit) {
+        String sortBy = criteria.getSortBy() != null ? criteria.getSortBy() : "id";
+        // The sort field ends up in the query text, so only whitelisted names are accepted
+        if (!SEEK_SORT_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        }
+        boolean descending = "desc".equalsIgnoreCase(criteria.getSortDir());
+        String after = descending ? "<" : ">";
+        String direction = descending ? " DESC" : " ASC";
+
+        StringBuilder jpql = new StringBuilder(ProductRepo.SELECT_SUMMARY).append("WHERE p.deleted = false");
+        Map<String, Object> params = new HashMap<>();
+
+        if (criteria.getKeyword() != null && !criteria.getKeyword().isBlank()) {
+            jpql.append(" AND (LOWER(p.name) LIKE :keyword OR LOWER(p.description) LIKE :keyword" +
+                    " OR LOWER(p.brand) LIKE :keyword OR LOWER(p.category) LIKE :keyword)");
+            params.put("keyword", "%" + criteria.getKeyword().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (criteria.getCategory() != null) {
+            jpql.append(" AND LOWER(p.category) = LOWER(:category)");
+            params.put("category", criteria.getCategory());
+        }
+        if (criteria.getBrand() != null) {
+            jpql.append(" AND LOWER(p.brand) = LOWER(:brand)");
+            params.put("brand", criteria.getBrand());
+        }
+        if (criteria.getMinPrice() != null) {
+            jpql.append(" AND p.price >= :minPrice");
+            params.put("minPrice", criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            jpql.append(" AND p.price <= :maxPrice");
+            params.put("maxPrice", criteria.getMaxPrice());
+        }
+        if (criteria.getAvailable() != null) {
+            jpql.append(" AND p.productAvailable = :available");
+            params.put("available", criteria.getAvailable());
+        }
+
+        if (lastId != null) {
+            if ("id".equals(sortBy)) {
+                jpql.append(" AND p.id ").append(after).append(" :lastId");
+            } else {
+                // Equivalent to (sortBy, id) > (:lastValue, :lastId), written so the leading
+                // range condition on the sort column can use its index
+                String column = "p." + sortBy;
+                jpql.append(" AND ").append(column).append(' ').append(after).append("= :lastValue")
+                        .append(" AND (").append(column).append(' ').append(after).append(" :lastValue")
+                        .append(" OR p.id ").append(after).append(" :lastId)");
+                params.put("lastValue", lastSortValue);
+            }
+            params.put("lastId", lastId);
+        }
+
+        jpql.append(" ORDER BY p.").append(sortBy).append(direction);
+        if (!"id".equals(sortBy)) {
+            jpql.append(", p.id").append(direction);
+        }
+
+        TypedQuery<ProductSummary> query = entityManager.createQuery(jpql.toString(), ProductSummary.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<ProductSummary> streamAllSummaries() {
+        return StreamingQueries.stream(entityManager, entityManager.createQuery(
+                ProductRepo.SELECT_SUMMARY + "WHERE p.deleted = false ORDER BY p.id", ProductSummary.class));
+    }
+}
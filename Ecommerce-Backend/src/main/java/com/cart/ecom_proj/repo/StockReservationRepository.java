@@ -0,0 +1,44 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.model.ReservationStatus;
+import com.cart.ecom_proj.model.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Moves the holds of the given orders from one status to another.
+     *
+     * @return number of holds changed; 0 if the orders have no holds in the expected status
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.orderId IN :orderIds AND r.status = :from")
+    int updateStatus(@Param("orderIds") Collection<Long> orderIds, @Param("from") ReservationStatus from,
+                     @Param("to") ReservationStatus to);
+
+    /**
+     * Active holds of the given orders, locked so a payment confirmed at the same time waits
+     * for the expiry to finish, or the other way round.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.orderId IN :orderIds "
+            + "AND r.status = com.cart.ecom_proj.model.ReservationStatus.ACTIVE ORDER BY r.id")
+    List<StockReservation> findActiveForUpdate(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Order ID and expiry of every order with active holds, to rebuild the expiry queue.
+     */
+    @Query("SELECT r.orderId, MIN(r.expiresAt) FROM StockReservation r "
+            + "WHERE r.status = com.cart.ecom_proj.model.ReservationStatus.ACTIVE GROUP BY r.orderId")
+    List<Object[]> findActiveExpiries();
+}
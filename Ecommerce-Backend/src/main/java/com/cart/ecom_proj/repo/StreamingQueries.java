@@ -0,0 +1,34 @@
+package com.cart.ecom_proj.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.stream.Stream;
+
+/**
+ * Runs queries whose results are streamed to a download without holding them in memory.
+ *
+ * MySQL Connector/J reads a whole result set into memory unless the statement's fetch size is
+ * {@code Integer.MIN_VALUE}, which streams the rows of that statement only; the connection keeps
+ * client-side prepared statements for every other query. While such a stream is open no other
+ * statement can run on the connection, so callers must only read the stream until it is closed.
+ * Other databases (H2 in tests) reject a negative fetch size and fetch in chunks instead.
+ */
+final class StreamingQueries {
+
+    static final int FETCH_SIZE = 1000;
+
+    private StreamingQueries() {
+    }
+
+    static <T> Stream<T> stream(EntityManager entityManager, TypedQuery<T> query) {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, dialect instanceof MySQLDialect ? Integer.MIN_VALUE : FETCH_SIZE);
+        return query.getResultStream();
+    }
+}
@@ -0,0 +1,205 @@
+package com.cart.ecom_proj.search;
+
+import com.cart.ecom_proj.dto.SearchFiltersResponse;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog-wide aggregates used by the search filters: product counts per category and brand,
+ * and the price range.
+ *
+ * Counts are kept per value so they can be decremented when products change or are deleted;
+ * prices are kept as a sorted multiset so the minimum and maximum stay correct after the
+ * cheapest or most expensive product goes away. Built when the application is ready (or on
+ * first use if a request comes in earlier) and updated by
+ * {@link com.cart.ecom_proj.service.ProductService} on every product write.
+ */
+@Component
+public class CatalogAggregates {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogAggregates.class);
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock. Categories and brands are grouped case-insensitively
+    // and listed under the spelling first seen.
+    private final TreeMap<String, ValueCount> categories = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, ValueCount> brands = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private boolean ready;
+
+    /**
+     * @return categories and brands in alphabetical order and the current price range
+     */
+    public SearchFiltersResponse getFilters() {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                return snapshot();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuild();
+        return getFilters();
+    }
+
+    /**
+     * Adds a product to the aggregates or replaces its previous values.
+     * Soft-deleted products are removed instead.
+     *
+     * @param product saved product
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeContribution(product.getId());
+            if (!product.isDeleted()) {
+                addContribution(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the aggregates.
+     *
+     * @param productId ID of the deleted product
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeContribution(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes all aggregates from the database.
+     * Reads and product writes wait while it runs; it is only expected at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            categories.clear();
+            brands.clear();
+            prices.clear();
+            contributions.clear();
+
+            Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+            Page<Product> page;
+            do {
+                page = productRepo.findAll(pageable);
+                for (Product product : page) {
+                    addContribution(product);
+                }
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+            ready = true;
+
+            logger.info("Catalog aggregates built for {} products in {} ms",
+                    contributions.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private SearchFiltersResponse snapshot() {
+        return new SearchFiltersResponse(
+                names(categories),
+                names(brands),
+                prices.isEmpty() ? null : prices.firstKey(),
+                prices.isEmpty() ? null : prices.lastKey());
+    }
+
+    private static List<String> names(TreeMap<String, ValueCount> counts) {
+        List<String> names = new ArrayList<>(counts.size());
+        for (ValueCount count : counts.values()) {
+            names.add(count.name);
+        }
+        return names;
+    }
+
+    private void addContribution(Product product) {
+        Contribution contribution = new Contribution(trimToNull(product.getCategory()),
+                trimToNull(product.getBrand()), product.getPrice());
+        increment(categories, contribution.category());
+        increment(brands, contribution.brand());
+        if (contribution.price() != null) {
+            prices.merge(contribution.price(), 1, Integer::sum);
+        }
+        contributions.put(product.getId(), contribution);
+    }
+
+    private void removeContribution(int productId) {
+        Contribution previous = contributions.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        decrement(categories, previous.category());
+        decrement(brands, previous.brand());
+        if (previous.price() != null) {
+            prices.computeIfPresent(previous.price(), (price, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static void increment(TreeMap<String, ValueCount> counts, String value) {
+        if (value != null) {
+            counts.computeIfAbsent(value, ValueCount::new).count++;
+        }
+    }
+
+    private static void decrement(TreeMap<String, ValueCount> counts, String value) {
+        if (value != null) {
+            counts.computeIfPresent(value, (key, count) -> --count.count > 0 ? count : null);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static final class ValueCount {
+        final String name;
+        int count;
+
+        ValueCount(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Values a product counts towards, so they can be taken back when it changes.
+     */
+    private record Contribution(String category, String brand, BigDecimal price) {
+    }
+}
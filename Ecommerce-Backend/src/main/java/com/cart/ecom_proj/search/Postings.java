@@ -0,0 +1,74 @@
+package com.cart.ecom_proj.search;
+
+import java.util.Arrays;
+
+/**
+ * Posting list of one term: product IDs in ascending order with the (field weighted) term
+ * frequency of each. Kept as parallel primitive arrays so large lists stay compact and
+ * can be merged without boxing.
+ */
+final class Postings {
+
+    private int[] ids = new int[4];
+    private int[] freqs = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int index) {
+        return ids[index];
+    }
+
+    int freqAt(int index) {
+        return freqs[index];
+    }
+
+    /**
+     * Adds or replaces the entry for a product. Products are mostly indexed in ID order,
+     * so this is usually an append.
+     */
+    void put(int id, int freq) {
+        if (size > 0 && ids[size - 1] < id) {
+            append(id, freq);
+            return;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            freqs[pos] = freq;
+            return;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(freqs, insertAt, freqs, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        freqs[insertAt] = freq;
+        size++;
+    }
+
+    void remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        System.arraycopy(freqs, pos + 1, freqs, pos, size - pos - 1);
+        size--;
+    }
+
+    private void append(int id, int freq) {
+        ensureCapacity();
+        ids[size] = id;
+        freqs[size] = freq;
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            freqs = Arrays.copyOf(freqs, size * 2);
+        }
+    }
+}
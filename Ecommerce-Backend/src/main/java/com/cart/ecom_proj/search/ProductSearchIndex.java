@@ -0,0 +1,479 @@
+package com.cart.ecom_proj.search;
+
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory full-text index over the product catalog.
+ *
+ * Name, description, brand and category are tokenized into an inverted index of primitive
+ * posting lists and matches are ranked with BM25, with name matches weighted highest.
+ * Every query term must match (AND); a term also matches words it is a prefix of, so
+ * results appear while the user is still typing. Query cost depends on the posting lists
+ * of the query terms, not on the size of the products table.
+ *
+ * The index is built when the application is ready and kept up to date by
+ * {@link com.cart.ecom_proj.service.ProductService} on every product write. It also keeps the
+ * few attributes needed to filter and sort results, so searches only load the products of the
+ * requested page from the database.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    public static final String SORT_RELEVANCE = "relevance";
+
+    private static final Set<String> SORT_FIELDS = Set.of(SORT_RELEVANCE, "id", "name", "price", "brand", "category");
+
+    // A word in the name counts three times as much as the same word in the description
+    static final int NAME_WEIGHT = 3;
+    static final int BRAND_WEIGHT = 2;
+    static final int CATEGORY_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Prefix matches ("lap" -> "laptop") rank below exact word matches
+    private static final double PREFIX_MATCH_WEIGHT = 0.5;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private State state = new State();
+
+    // Changes made while a rebuild is loading products, replayed before the new state is swapped in.
+    // A null value records a removal. Guarded by lock; null when no rebuild is running.
+    private Map<Integer, IndexedProduct> changesDuringRebuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Filter applied to search matches. Null fields are ignored; category and brand
+     * are compared case-insensitively.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Filter {
+        public static final Filter NONE = new Filter(null, null, null, null, null);
+
+        private final String category;
+        private final String brand;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+        private final Boolean available;
+
+        boolean matches(IndexedProduct product) {
+            return (category == null || category.equalsIgnoreCase(product.category()))
+                    && (brand == null || brand.equalsIgnoreCase(product.brand()))
+                    && (minPrice == null || product.price().compareTo(minPrice) >= 0)
+                    && (maxPrice == null || product.price().compareTo(maxPrice) <= 0)
+                    && (available == null || available == product.available());
+        }
+    }
+
+    /**
+     * @return true once the index has been built; until then callers should fall back to the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @param sortBy requested sort field
+     * @return true if search results can be sorted by the field without going to the database
+     */
+    public static boolean supportsSort(String sortBy) {
+        return sortBy != null && SORT_FIELDS.contains(sortBy);
+    }
+
+    /**
+     * @return number of indexed products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a product to the index or replaces its previous entry.
+     * Soft-deleted products are removed instead.
+     *
+     * @param product saved product
+     */
+    public void index(Product product) {
+        if (product.isDeleted()) {
+            remove(product.getId());
+            return;
+        }
+        IndexedProduct entry = analyze(product);
+        lock.writeLock().lock();
+        try {
+            state.put(entry);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(entry.id(), entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param productId ID of the deleted product
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(productId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all products matching every term of the query.
+     *
+     * @param query      search text as entered by the user
+     * @param filter     additional attribute filter
+     * @param sortBy     {@value #SORT_RELEVANCE} or one of id, name, price, brand, category
+     * @param descending sort direction; ignored for relevance, which always ranks best matches first
+     * @return IDs of the matching products in result order
+     */
+    public List<Integer> search(String query, Filter filter, String sortBy, boolean descending) {
+        String[] terms = tokenize(query).keySet().toArray(String[]::new);
+        if (terms.length == 0) {
+            return List.of();
+        }
+
+        List<Hit> hits;
+        lock.readLock().lock();
+        try {
+            Matches matches = null;
+            for (String term : terms) {
+                Matches termMatches = matchTerm(state, term);
+                matches = matches == null ? termMatches : matches.intersect(termMatches);
+                if (matches.size == 0) {
+                    return List.of();
+                }
+            }
+            hits = new ArrayList<>(matches.size);
+            for (int i = 0; i < matches.size; i++) {
+                IndexedProduct product = state.products.get(matches.ids[i]);
+                if (filter.matches(product)) {
+                    hits.add(new Hit(product, matches.scores[i]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(comparator(sortBy, descending));
+        return hits.stream().map(hit -> hit.product().id()).toList();
+    }
+
+    /**
+     * Rebuilds the whole index from the database. Searches keep using the previous index
+     * while products are loaded; writes made in the meantime are carried over.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State fresh = new State();
+        try {
+            Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+            Page<Product> page;
+            do {
+                page = productRepo.findAll(pageable);
+                for (Product product : page) {
+                    fresh.put(analyze(product));
+                }
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach((id, entry) -> {
+                if (entry == null) {
+                    fresh.remove(id);
+                } else {
+                    fresh.put(entry);
+                }
+            });
+            changesDuringRebuild = null;
+            state = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built: {} products, {} terms in {} ms",
+                fresh.products.size(), fresh.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Splits text into lowercase words and counts them.
+     *
+     * @return term frequencies in order of first occurrence
+     */
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                terms.merge(token, 1, Integer::sum);
+            }
+        }
+        return terms;
+    }
+
+    private static IndexedProduct analyze(Product product) {
+        Map<String, Integer> weighted = new HashMap<>();
+        int length = 0;
+        length += addField(weighted, product.getName(), NAME_WEIGHT);
+        length += addField(weighted, product.getBrand(), BRAND_WEIGHT);
+        length += addField(weighted, product.getCategory(), CATEGORY_WEIGHT);
+        length += addField(weighted, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        String[] terms = new String[weighted.size()];
+        int[] freqs = new int[weighted.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weighted.entrySet()) {
+            terms[i] = entry.getKey();
+            freqs[i] = entry.getValue();
+            i++;
+        }
+        return new IndexedProduct(product.getId(), Math.max(length, 1), terms, freqs,
+                product.getName(), product.getBrand(), product.getCategory(),
+                product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO, product.isProductAvailable());
+    }
+
+    private static int addField(Map<String, Integer> weighted, String text, int weight) {
+        int length = 0;
+        for (Map.Entry<String, Integer> term : tokenize(text).entrySet()) {
+            weighted.merge(term.getKey(), term.getValue() * weight, Integer::sum);
+            length += term.getValue() * weight;
+        }
+        return length;
+    }
+
+    private static Matches matchTerm(State state, String term) {
+        Matches matches = Matches.EMPTY;
+        int expansions = 0;
+        for (Map.Entry<String, Postings> entry
+                : state.postings.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+            double weight = entry.getKey().equals(term) ? 1.0 : PREFIX_MATCH_WEIGHT;
+            matches = matches.union(score(state, entry.getValue(), weight));
+            if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    private static Matches score(State state, Postings postings, double weight) {
+        int documents = state.products.size();
+        double averageLength = (double) state.totalLength / documents;
+        int df = postings.size();
+        double idf = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+
+        Matches matches = new Matches(df);
+        for (int i = 0; i < df; i++) {
+            int id = postings.idAt(i);
+            int tf = postings.freqAt(i);
+            int length = state.products.get(id).length();
+            double norm = K1 * (1 - B + B * length / averageLength);
+            matches.add(id, weight * idf * tf * (K1 + 1) / (tf + norm));
+        }
+        return matches;
+    }
+
+    private static Comparator<Hit> comparator(String sortBy, boolean descending) {
+        Comparator<Hit> byId = Comparator.comparingInt(hit -> hit.product().id());
+        if (sortBy == null || SORT_RELEVANCE.equals(sortBy)) {
+            return Comparator.comparingDouble(Hit::score).reversed().thenComparing(byId);
+        }
+        Comparator<Hit> primary = switch (sortBy) {
+            case "name" -> Comparator.comparing(hit -> hit.product().name(), String.CASE_INSENSITIVE_ORDER);
+            case "brand" -> Comparator.comparing(hit -> hit.product().brand(), String.CASE_INSENSITIVE_ORDER);
+            case "category" -> Comparator.comparing(hit -> hit.product().category(), String.CASE_INSENSITIVE_ORDER);
+            case "price" -> Comparator.comparing(hit -> hit.product().price());
+            case "id" -> byId;
+            default -> throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        };
+        return (descending ? primary.reversed() : primary).thenComparing(byId);
+    }
+
+    /**
+     * Indexed form of a product: its weighted terms plus the attributes used to filter and sort.
+     */
+    private record IndexedProduct(int id, int length, String[] terms, int[] freqs,
+                                  String name, String brand, String category,
+                                  BigDecimal price, boolean available) {
+    }
+
+    private record Hit(IndexedProduct product, double score) {
+    }
+
+    private static final class State {
+        final TreeMap<String, Postings> postings = new TreeMap<>();
+        final Map<Integer, IndexedProduct> products = new HashMap<>();
+        long totalLength;
+
+        void put(IndexedProduct product) {
+            remove(product.id());
+            for (int i = 0; i < product.terms().length; i++) {
+                postings.computeIfAbsent(product.terms()[i], term -> new Postings()).put(product.id(), product.freqs()[i]);
+            }
+            products.put(product.id(), product);
+            totalLength += product.length();
+        }
+
+        void remove(int id) {
+            IndexedProduct previous = products.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String term : previous.terms()) {
+                Postings list = postings.get(term);
+                list.remove(id);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= previous.length();
+        }
+    }
+
+    /**
+     * Scored product IDs in ascending ID order.
+     */
+    private static final class Matches {
+        static final Matches EMPTY = new Matches(0);
+
+        int[] ids;
+        double[] scores;
+        int size;
+
+        Matches(int capacity) {
+            ids = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        void add(int id, double score) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+                scores = Arrays.copyOf(scores, ids.length);
+            }
+            ids[size] = id;
+            scores[size] = score;
+            size++;
+        }
+
+        /**
+         * Products in either list; a product matching several expansions of a term keeps its best score.
+         */
+        Matches union(Matches other) {
+            Matches result = new Matches(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && ids[i] < other.ids[j])) {
+                    result.add(ids[i], scores[i]);
+                    i++;
+                } else if (i == size || other.ids[j] < ids[i]) {
+                    result.add(other.ids[j], other.scores[j]);
+                    j++;
+                } else {
+                    result.add(ids[i], Math.max(scores[i], other.scores[j]));
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Products in both lists, scored with the sum of both scores.
+         */
+        Matches intersect(Matches other) {
+            Matches result = new Matches(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (ids[i] < other.ids[j]) {
+                    i++;
+                } else if (other.ids[j] < ids[i]) {
+                    j++;
+                } else {
+                    result.add(ids[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
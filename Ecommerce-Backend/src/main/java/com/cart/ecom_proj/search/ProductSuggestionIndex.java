@@ -0,0 +1,427 @@
+package com.cart.ecom_proj.search;
+
+import com.cart.ecom_proj.dto.ProductSales;
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.OrderItemRepository;
+import com.cart.ecom_proj.repo.ProductRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead suggestions over product names, brands and categories.
+ *
+ * Suggestions live in a compressed prefix (radix) trie. Every node caches the best
+ * {@value #MAX_SUGGESTIONS} suggestions of its subtree, so a lookup only walks the characters
+ * of the prefix and returns the cached list. Each suggestion is reachable from the start of
+ * every word in its text, so "mou" also completes "Wireless Mouse".
+ *
+ * Suggestions are ranked by popularity: a product weighs one plus the units it has sold
+ * (as of the last rebuild), and a brand or category weighs the sum of its products.
+ * The trie is built when the application is ready and updated by
+ * {@link com.cart.ecom_proj.service.ProductService} on every product write.
+ */
+@Component
+public class ProductSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestionIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator.comparingLong((Entry entry) -> entry.weight).reversed()
+            .thenComparing(entry -> entry.text, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(entry -> entry.id);
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private Map<Integer, Long> unitsSold = Map.of();
+
+    /**
+     * Returns the most popular suggestions starting with the given prefix (case-insensitive).
+     *
+     * @param prefix text typed so far
+     * @param limit  maximum number of suggestions, capped at {@value #MAX_SUGGESTIONS}
+     * @return suggestions, most popular first
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Entry[] top = findSubtree(key);
+            List<ProductSuggestion> suggestions = new ArrayList<>(Math.min(limit, top.length));
+            for (int i = 0; i < top.length && i < limit; i++) {
+                suggestions.add(top[i].toSuggestion());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a product's suggestions or replaces the previous ones. Soft-deleted products are removed instead.
+     *
+     * @param product saved product
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeContribution(product.getId());
+            if (!product.isDeleted()) {
+                addContribution(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product's suggestions.
+     *
+     * @param productId ID of the deleted product
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeContribution(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the trie from the database with current sales figures.
+     * Lookups and product writes wait while it runs; it is only expected at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Long> sales = new HashMap<>();
+            for (ProductSales row : orderItemRepository.findUnitsSoldPerProduct()) {
+                sales.put(row.getProductId(), row.getUnitsSold());
+            }
+            unitsSold = sales;
+
+            root.children.clear();
+            root.entries.clear();
+            root.top = NO_ENTRIES;
+            entries.clear();
+            contributions.clear();
+
+            Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+            Page<Product> page;
+            do {
+                page = productRepo.findAll(pageable);
+                for (Product product : page) {
+                    addContribution(product);
+                }
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+
+            logger.info("Product suggestion index built: {} suggestions for {} products in {} ms",
+                    entries.size(), contributions.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addContribution(Product product) {
+        long weight = 1 + unitsSold.getOrDefault(product.getId(), 0L);
+        String productEntry = addWeight("product:" + product.getId(), product.getName(),
+                ProductSuggestion.Type.PRODUCT, product.getId(), weight);
+        String brandEntry = addWeight("brand:" + normalize(product.getBrand()), product.getBrand(),
+                ProductSuggestion.Type.BRAND, null, weight);
+        String categoryEntry = addWeight("category:" + normalize(product.getCategory()), product.getCategory(),
+                ProductSuggestion.Type.CATEGORY, null, weight);
+        contributions.put(product.getId(), new Contribution(productEntry, brandEntry, categoryEntry, weight));
+    }
+
+    private void removeContribution(int productId) {
+        Contribution previous = contributions.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String id : new String[]{previous.productEntry(), previous.brandEntry(), previous.categoryEntry()}) {
+            if (id != null) {
+                addWeight(id, null, null, null, -previous.weight());
+            }
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the weight of a suggestion, creating it on first use and
+     * dropping it once nothing contributes to it anymore.
+     *
+     * @return ID of the suggestion, or null if the text is blank
+     */
+    private String addWeight(String id, String text, ProductSuggestion.Type type, Integer productId, long delta) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            if (text == null || normalize(text).isEmpty() || delta <= 0) {
+                return null;
+            }
+            entry = new Entry(id, text.trim(), type, productId, delta, wordStartKeys(text));
+            entries.put(id, entry);
+            for (String key : entry.keys) {
+                insert(key, entry);
+            }
+            return id;
+        }
+
+        entry.weight += delta;
+        if (entry.weight <= 0) {
+            entries.remove(id);
+            for (String key : entry.keys) {
+                delete(key, entry);
+            }
+        } else {
+            for (String key : entry.keys) {
+                List<Node> path = findPath(key);
+                if (path != null) {
+                    refresh(path);
+                }
+            }
+        }
+        return id;
+    }
+
+    private void insert(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                i = key.length();
+            } else {
+                int common = commonPrefixLength(child.label, key, i);
+                if (common < child.label.length()) {
+                    // Key diverges inside this edge - split it
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children.put(child.label.charAt(0), child);
+                    node.children.put(middle.label.charAt(0), middle);
+                    child = middle;
+                }
+                i += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        node.entries.add(entry);
+        refresh(path);
+    }
+
+    private void delete(String key, Entry entry) {
+        List<Node> path = findPath(key);
+        if (path == null) {
+            return;
+        }
+        path.get(path.size() - 1).entries.remove(entry);
+        // Removing a node can leave its parent with a single child, so compact both levels
+        if (compact(path, path.size() - 1)) {
+            compact(path, path.size() - 1);
+        }
+        refresh(path);
+    }
+
+    /**
+     * Removes the node at {@code index} of the path if it became empty, or merges it with its only child.
+     *
+     * @return true if the node was removed from the path
+     */
+    private boolean compact(List<Node> path, int index) {
+        if (index == 0) {
+            return false;
+        }
+        Node node = path.get(index);
+        Node parent = path.get(index - 1);
+        if (!node.entries.isEmpty()) {
+            return false;
+        }
+        if (node.children.isEmpty()) {
+            parent.children.remove(node.label.charAt(0));
+            path.remove(index);
+            return true;
+        }
+        if (node.children.size() == 1) {
+            Node child = node.children.values().iterator().next();
+            child.label = node.label + child.label;
+            parent.children.put(child.label.charAt(0), child);
+            path.set(index, child);
+        }
+        return false;
+    }
+
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return null;
+            }
+            i += node.label.length();
+            path.add(node);
+        }
+        return path;
+    }
+
+    private Entry[] findSubtree(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = node.children.get(prefix.charAt(i));
+            if (node == null) {
+                return NO_ENTRIES;
+            }
+            int common = commonPrefixLength(node.label, prefix, i);
+            if (i + common == prefix.length()) {
+                // Prefix ends at or inside this edge - everything below matches
+                return node.top;
+            }
+            if (common < node.label.length()) {
+                return NO_ENTRIES;
+            }
+            i += common;
+        }
+        return node.top;
+    }
+
+    /**
+     * Recomputes the cached top suggestions of every node on the path, deepest first.
+     */
+    private static void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<Entry> candidates = new ArrayList<>(node.entries);
+            for (Node child : node.children.values()) {
+                Collections.addAll(candidates, child.top);
+            }
+            candidates.sort(BY_POPULARITY);
+            // An entry can reach a subtree through several of its words; keep it once
+            Set<Entry> top = new LinkedHashSet<>();
+            for (Entry candidate : candidates) {
+                if (top.size() == MAX_SUGGESTIONS) {
+                    break;
+                }
+                top.add(candidate);
+            }
+            node.top = top.toArray(NO_ENTRIES);
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    /**
+     * "Wireless Mouse Pro" is reachable as "wireless mouse pro", "mouse pro" and "pro".
+     */
+    private static List<String> wordStartKeys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys.stream().distinct().toList();
+    }
+
+    private static final class Node {
+        // Label of the edge leading to this node
+        String label;
+        final Map<Character, Node> children = new HashMap<>(4);
+        // Suggestions whose key ends exactly here
+        final List<Entry> entries = new ArrayList<>(1);
+        Entry[] top = NO_ENTRIES;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String text;
+        final ProductSuggestion.Type type;
+        final Integer productId;
+        final List<String> keys;
+        long weight;
+
+        Entry(String id, String text, ProductSuggestion.Type type, Integer productId, long weight, List<String> keys) {
+            this.id = id;
+            this.text = text;
+            this.type = type;
+            this.productId = productId;
+            this.weight = weight;
+            this.keys = keys;
+        }
+
+        ProductSuggestion toSuggestion() {
+            return new ProductSuggestion(text, type, productId);
+        }
+    }
+
+    /**
+     * Suggestions a product adds weight to, so they can be taken back when it changes.
+     */
+    private record Contribution(String productEntry, String brandEntry, String categoryEntry, long weight) {
+    }
+}
@@ -0,0 +1,451 @@
+package com.cart.ecom_proj.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Sellable stock of "hot" products, kept in memory so flash-sale checkouts do not queue on the
+ * product's row lock. Hot mode is opt-in: only the products listed in
+ * {@code app.inventory.hot-sku.product-ids} are affected, everything else keeps using the guarded
+ * UPDATE in {@link com.cart.ecom_proj.repo.ProductRepoCustom#decrementStock}.
+ *
+ * Each hot product has a {@link StripedCounter} loaded from {@code stock_quantity} on startup.
+ * Orders take from it without locks and without touching the products table; every change is
+ * appended to a delta log on disk before it counts. A flusher periodically adds the net change
+ * per product to {@code stock_quantity} and records the last log entry it covered in
+ * {@code hot_sku_checkpoint} in the same transaction. After a crash, the log entries past the
+ * checkpoint are replayed on startup, so no change is lost or applied twice, including changes
+ * of products that are no longer hot. The log is written to the operating system before the
+ * order commits, which survives a crash of the application but not of the machine.
+ *
+ * Log appends are group committed: concurrent checkouts queue their entries, and the thread that
+ * gets the log lock writes every queued entry with a single write call, so checkouts do not take
+ * turns on one write each. A take is logged just before its order commits, so an order that
+ * never commits leaves nothing to replay.
+ *
+ * This node owns the stock of its hot products: they must not be listed on other nodes, and
+ * their checkouts must reach this node. Stock shown from the database lags by up to one flush
+ * interval, and stock changes made by admins are not seen until the product is no longer hot.
+ */
+@Service
+@DependsOn("entityManagerFactory") // hot_sku_checkpoint is created by Hibernate
+public class HotSkuInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotSkuInventory.class);
+
+    private static final String SEGMENT_PREFIX = "hot-sku-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Integer> productIds;
+    private final Path logDir;
+    private final int stripes;
+
+    private final Map<Integer, StripedCounter> counters = new ConcurrentHashMap<>();
+
+    // Entries waiting for the next write of the log
+    private final Queue<LogEntry> unwritten = new ConcurrentLinkedQueue<>();
+    // Guards the log and the deltas that are not in the database yet
+    private final ReentrantLock logLock = new ReentrantLock();
+    private final Map<Integer, Long> pendingDeltas = new HashMap<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private FileChannel segment;
+    private Path segmentFile;
+    private long nextSequence;
+
+    /**
+     * A stock change waiting in the queue; sequence numbers are given as entries are written.
+     */
+    private static final class LogEntry {
+        private final int productId;
+        private final int delta;
+        private volatile boolean written;
+        private volatile IOException failure;
+
+        private LogEntry(int productId, int delta) {
+            this.productId = productId;
+            this.delta = delta;
+        }
+    }
+
+    public HotSkuInventory(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.inventory.hot-sku.product-ids:}") List<Integer> productIds,
+                           @Value("${app.inventory.hot-sku.log-dir:data/hot-sku-log}") Path logDir,
+                           @Value("${app.inventory.hot-sku.stripes:16}") int stripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productIds = new LinkedHashSet<>(productIds);
+        this.logDir = logDir;
+        this.stripes = stripes;
+    }
+
+    /**
+     * Replays the delta log left by the last run into the database, then loads the stock of the
+     * hot products.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!productIds.isEmpty()) {
+            Files.createDirectories(logDir);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Integer productId : productIds) {
+                    if (jdbcTemplate.update("UPDATE hot_sku_checkpoint SET last_sequence = last_sequence "
+                            + "WHERE product_id = ?", productId) == 0) {
+                        jdbcTemplate.update("INSERT INTO hot_sku_checkpoint (product_id, last_sequence) VALUES (?, 0)",
+                                productId);
+                    }
+                }
+            });
+        }
+        // Also when no product is hot anymore, so changes of a run that crashed are not dropped
+        long lastSequence = recover();
+        if (productIds.isEmpty()) {
+            return;
+        }
+        nextSequence = lastSequence + 1;
+
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query("SELECT id, stock_quantity FROM products WHERE id IN (" + placeholders + ") AND deleted = false",
+                row -> { counters.put(row.getInt(1), new StripedCounter(stripes, row.getInt(2))); },
+                productIds.toArray());
+        logLock.lock();
+        try {
+            openSegment();
+        } finally {
+            logLock.unlock();
+        }
+        logger.info("Serving the stock of {} hot products from memory", counters.size());
+    }
+
+    public boolean isHot(int productId) {
+        return counters.containsKey(productId);
+    }
+
+    /**
+     * @return in-memory stock of a hot product
+     */
+    public int getAvailable(int productId) {
+        return counters.get(productId).sum();
+    }
+
+    /**
+     * Takes stock of a hot product. In a transaction, the take is logged just before it commits,
+     * and the stock comes back if it rolls back.
+     *
+     * @return false if the product has less than the quantity left
+     */
+    public boolean take(int productId, int quantity) {
+        StripedCounter counter = counters.get(productId);
+        if (!counter.tryTake(quantity)) {
+            return false;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                append(productId, -quantity);
+            } catch (RuntimeException e) {
+                counter.add(quantity);
+                throw e;
+            }
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean logged;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                append(productId, -quantity);
+                logged = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    if (logged) {
+                        // The commit failed after the take was logged
+                        append(productId, quantity);
+                    }
+                    counter.add(quantity);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Puts stock of hot products back, once the current transaction commits.
+     *
+     * @param quantities quantity to add, by product ID
+     * @return the quantities of products that are not hot, to be restocked in the database
+     */
+    public Map<Integer, Integer> putBack(Map<Integer, Integer> quantities) {
+        Map<Integer, Integer> hot = new HashMap<>();
+        Map<Integer, Integer> rest = new HashMap<>();
+        quantities.forEach((productId, quantity) -> (isHot(productId) ? hot : rest).put(productId, quantity));
+        if (hot.isEmpty()) {
+            return rest;
+        }
+        Runnable restock = () -> hot.forEach((productId, quantity) -> {
+            append(productId, quantity);
+            counters.get(productId).add(quantity);
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    restock.run();
+                }
+            });
+        } else {
+            restock.run();
+        }
+        return rest;
+    }
+
+    /**
+     * Writes the net stock changes since the last flush to the products table. The log segments
+     * they came from are deleted once committed; on failure the changes are retried next time.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.hot-sku.flush-interval:1000}")
+    public synchronized void flush() {
+        Map<Integer, Long> deltas;
+        long lastSequence;
+        List<Path> flushedSegments;
+        logLock.lock();
+        try {
+            if (pendingDeltas.isEmpty()) {
+                return;
+            }
+            // Later changes go to a new segment, so this one can be deleted when the flush commits.
+            // It may have no entries if only a failed flush is retried.
+            if (!segmentFile.equals(segmentPath(nextSequence))) {
+                FileChannel previous = segment;
+                sealedSegments.add(segmentFile);
+                openSegment();
+                closeQuietly(previous);
+            }
+            deltas = new HashMap<>(pendingDeltas);
+            pendingDeltas.clear();
+            lastSequence = nextSequence - 1;
+            flushedSegments = new ArrayList<>(sealedSegments);
+        } finally {
+            logLock.unlock();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeDeltas(deltas, lastSequence));
+        } catch (RuntimeException e) {
+            logLock.lock();
+            try {
+                deltas.forEach((productId, delta) -> pendingDeltas.merge(productId, delta, Long::sum));
+            } finally {
+                logLock.unlock();
+            }
+            logger.warn("Could not write hot product stock to the database: {}", e.getMessage());
+            return;
+        }
+        logLock.lock();
+        try {
+            sealedSegments.removeAll(flushedSegments);
+        } finally {
+            logLock.unlock();
+        }
+        for (Path file : flushedSegments) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete flushed delta log {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        flush();
+        logLock.lock();
+        try {
+            closeQuietly(segment);
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    /**
+     * Queues a change and returns once it is written to the log, by this thread or by another one
+     * that wrote it along with its own.
+     */
+    private void append(int productId, int delta) {
+        LogEntry entry = new LogEntry(productId, delta);
+        unwritten.add(entry);
+        logLock.lock();
+        try {
+            if (!entry.written) {
+                writeQueued();
+            }
+        } finally {
+            logLock.unlock();
+        }
+        if (entry.failure != null) {
+            throw new UncheckedIOException("Could not write the hot product delta log", entry.failure);
+        }
+    }
+
+    /**
+     * Writes every queued entry with one write call. Called with the log lock held.
+     */
+    private void writeQueued() {
+        List<LogEntry> batch = new ArrayList<>();
+        StringBuilder lines = new StringBuilder();
+        long sequence = nextSequence;
+        for (LogEntry entry = unwritten.poll(); entry != null; entry = unwritten.poll()) {
+            batch.add(entry);
+            lines.append(sequence++).append(',').append(entry.productId).append(',').append(entry.delta).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.US_ASCII));
+        IOException failure = null;
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            nextSequence = sequence;
+            for (LogEntry entry : batch) {
+                pendingDeltas.merge(entry.productId, (long) entry.delta, Long::sum);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        for (LogEntry entry : batch) {
+            entry.failure = failure;
+            entry.written = true;
+        }
+    }
+
+    /**
+     * Writes the log entries past the checkpoints to the database and deletes the log.
+     *
+     * @return the last sequence number in use
+     */
+    private long recover() throws IOException {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, last_sequence FROM hot_sku_checkpoint",
+                row -> { checkpoints.put(row.getInt(1), row.getLong(2)); });
+        long lastSequence = checkpoints.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        if (!Files.isDirectory(logDir)) {
+            return lastSequence;
+        }
+        Map<Integer, Long> replay = new HashMap<>();
+        List<Path> segments = listSegments();
+        for (Path file : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    String[] fields = line.split(",");
+                    if (fields.length != 3) {
+                        // Torn last line of a crashed run
+                        continue;
+                    }
+                    long sequence = Long.parseLong(fields[0]);
+                    int productId = Integer.parseInt(fields[1]);
+                    if (sequence > checkpoints.getOrDefault(productId, 0L)) {
+                        replay.merge(productId, Long.parseLong(fields[2]), Long::sum);
+                    }
+                    lastSequence = Math.max(lastSequence, sequence);
+                }
+            }
+        }
+        if (!replay.isEmpty()) {
+            long replayedUpTo = lastSequence;
+            transactionTemplate.executeWithoutResult(status -> writeDeltas(replay, replayedUpTo));
+            logger.info("Recovered unflushed stock changes of {} products from the hot SKU delta log", replay.size());
+        }
+        for (Path file : segments) {
+            Files.delete(file);
+        }
+        return lastSequence;
+    }
+
+    private void writeDeltas(Map<Integer, Long> deltas, long lastSequence) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> stock = new ArrayList<>(deltas.size());
+        List<Object[]> checkpoints = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> {
+            stock.add(new Object[]{delta, now, productId});
+            checkpoints.add(new Object[]{lastSequence, productId});
+        });
+        jdbcTemplate.batchUpdate("UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE id = ?",
+                stock);
+        jdbcTemplate.batchUpdate("UPDATE hot_sku_checkpoint SET last_sequence = ? WHERE product_id = ?", checkpoints);
+    }
+
+    /**
+     * Segments are named after the sequence of their first entry, zero-padded so they sort in
+     * log order.
+     */
+    private Path segmentPath(long firstSequence) {
+        return logDir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private void openSegment() {
+        Path file = segmentPath(nextSequence);
+        try {
+            segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the hot product delta log", e);
+        }
+        segmentFile = file;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(logDir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the hot product delta log: {}", e.getMessage());
+        }
+    }
+}
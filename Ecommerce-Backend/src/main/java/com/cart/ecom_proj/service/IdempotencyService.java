@@ -0,0 +1,344 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.cart.ecom_proj.exception.DuplicateResourceException;
+import com.cart.ecom_proj.exception.ServiceUnavailableException;
+import com.cart.ecom_proj.model.IdempotencyStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request sent with an {@code Idempotency-Key} header at most once per endpoint and user,
+ * so a client retrying after a timeout gets the response of the first attempt instead of e.g. a
+ * second order.
+ *
+ * The first request with a key claims it by inserting an {@code idempotency_record} row, runs,
+ * and stores its response in the row. Retries with the same key replay that response, from a
+ * bounded in-memory cache or else from the row. A retry that arrives while the first request is
+ * still running waits for it: on the same node on the first request's future, on other nodes by
+ * polling the row, for up to {@code app.idempotency.wait-timeout} before giving up with 409.
+ * Only successful (2xx) responses are stored; when the request fails, the key is released and
+ * the next retry runs it again. Reusing a key for a different request body is refused.
+ * Responses that carry secrets can be given a {@link StoredForm} that keeps only a reference in
+ * the record and looks the secret up again on replay.
+ *
+ * If the node stops between running the request and storing its response, the key stays in
+ * progress and retries get 409 until the record expires after {@code app.idempotency.retention};
+ * the request is never run twice. Call it outside a transaction, so the claim is visible to
+ * other requests right away.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private static final String SELECT_SQL = "SELECT request_hash, status, http_status, response_body "
+            + "FROM idempotency_record WHERE scope = ? AND owner = ? AND idempotency_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration waitTimeout;
+
+    // Completed responses, so most retries are answered without a query
+    private final Cache<Claim, StoredResponse> completed;
+    // Requests running on this node; duplicates wait on the future, which gets null if the request failed
+    private final ConcurrentHashMap<Claim, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    record Claim(String scope, String owner, String key) {
+    }
+
+    record StoredResponse(String requestHash, IdempotencyStatus status, int httpStatus, String body) {
+    }
+
+    /**
+     * How a response body is kept for replay, e.g. without a secret that must not be stored.
+     */
+    public interface StoredForm<T> {
+
+        /**
+         * @return what to store instead of the response sent to the first request
+         */
+        T toStored(T response);
+
+        /**
+         * @return the response to replay, rebuilt from what was stored
+         */
+        T fromStored(T stored);
+
+        static <T> StoredForm<T> asIs() {
+            return new StoredForm<>() {
+                @Override
+                public T toStored(T response) {
+                    return response;
+                }
+
+                @Override
+                public T fromStored(T stored) {
+                    return stored;
+                }
+            };
+        }
+    }
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.retention:24h}") Duration retention,
+                              @Value("${app.idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${app.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.waitTimeout = waitTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * Runs the action once for the given key, or replays the response it gave. Without a key the
+     * action simply runs.
+     *
+     * @param scope        the endpoint, e.g. {@code orders.create}
+     * @param owner        the user sending the request; keys of different users never collide
+     * @param key          the {@code Idempotency-Key} header, may be null
+     * @param request      what identifies the request besides the key, serialized to detect a
+     *                     key reused for another request
+     * @param responseType type of the response body, to read stored responses
+     * @param action       runs the request
+     */
+    public <T> ResponseEntity<T> execute(String scope, String owner, String key, Object request,
+                                         TypeReference<T> responseType, Supplier<ResponseEntity<T>> action) {
+        return execute(scope, owner, key, request, responseType, StoredForm.asIs(), action);
+    }
+
+    /**
+     * Same as {@link #execute(String, String, String, Object, TypeReference, Supplier)}, storing
+     * the response in the given form.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String owner, String key, Object request,
+                                         TypeReference<T> responseType, StoredForm<T> storedForm,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Claim claim = new Claim(scope, owner, key);
+        String requestHash = hash(request);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            StoredResponse stored = completed.getIfPresent(claim);
+            if (stored != null) {
+                return replay(stored, requestHash, responseType, storedForm);
+            }
+
+            CompletableFuture<StoredResponse> running = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> first = inFlight.putIfAbsent(claim, running);
+            if (first != null) {
+                stored = await(first, deadline);
+                if (stored != null) {
+                    return replay(stored, requestHash, responseType, storedForm);
+                }
+                // The first request failed and released the key
+                continue;
+            }
+
+            StoredResponse result = null;
+            try {
+                if (!insertClaim(claim, requestHash)) {
+                    // Claimed on another node, or completed and no longer cached
+                    result = awaitRecord(claim, requestHash, deadline);
+                    if (result == null) {
+                        continue;
+                    }
+                    return replay(result, requestHash, responseType, storedForm);
+                }
+
+                ResponseEntity<T> response;
+                try {
+                    response = action.get();
+                } catch (RuntimeException | Error e) {
+                    releaseClaim(claim);
+                    throw e;
+                }
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    releaseClaim(claim);
+                    return response;
+                }
+                result = complete(claim, requestHash, response, storedForm);
+                return response;
+            } finally {
+                inFlight.remove(claim, running);
+                running.complete(result);
+            }
+        }
+    }
+
+    /**
+     * Removes the records older than the retention, including keys left in progress by a node
+     * that stopped while running the request.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:600000}")
+    public void removeExpired() {
+        int removed = jdbcTemplate.update("DELETE FROM idempotency_record WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (removed > 0) {
+            logger.info("Removed {} expired idempotency keys", removed);
+        }
+    }
+
+    private boolean insertClaim(Claim claim, String requestHash) {
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_record (scope, owner, idempotency_key, request_hash, status, "
+                            + "created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    claim.scope(), claim.owner(), claim.key(), requestHash, IdempotencyStatus.IN_PROGRESS.name(),
+                    Timestamp.valueOf(LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void releaseClaim(Claim claim) {
+        jdbcTemplate.update("DELETE FROM idempotency_record WHERE scope = ? AND owner = ? AND idempotency_key = ? "
+                + "AND status = ?", claim.scope(), claim.owner(), claim.key(), IdempotencyStatus.IN_PROGRESS.name());
+    }
+
+    private <T> StoredResponse complete(Claim claim, String requestHash, ResponseEntity<T> response,
+                                        StoredForm<T> storedForm) {
+        StoredResponse stored;
+        try {
+            stored = new StoredResponse(requestHash, IdempotencyStatus.COMPLETED, response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(storedForm.toStored(response.getBody())));
+        } catch (JsonProcessingException e) {
+            // The request went through, so the key must not be released; retries get 409 until it expires
+            logger.error("Could not store the response for idempotency key {}: {}", claim.key(), e.getMessage());
+            return null;
+        }
+        try {
+            jdbcTemplate.update("UPDATE idempotency_record SET status = ?, http_status = ?, response_body = ?, "
+                            + "completed_at = ? WHERE scope = ? AND owner = ? AND idempotency_key = ?",
+                    stored.status().name(), stored.httpStatus(), stored.body(), Timestamp.valueOf(LocalDateTime.now()),
+                    claim.scope(), claim.owner(), claim.key());
+        } catch (RuntimeException e) {
+            // Retries on this node are still answered from the cache
+            logger.error("Could not store the response for idempotency key {}: {}", claim.key(), e.getMessage());
+        }
+        completed.put(claim, stored);
+        return stored;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> first, long deadline) {
+        try {
+            return first.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw stillRunning();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the first request with this "
+                    + HEADER);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for the request that holds the key on another node to complete.
+     *
+     * @return the stored response, or null if the key was released
+     */
+    private StoredResponse awaitRecord(Claim claim, String requestHash, long deadline) {
+        while (true) {
+            List<StoredResponse> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new StoredResponse(
+                            rs.getString("request_hash"), IdempotencyStatus.valueOf(rs.getString("status")),
+                            rs.getInt("http_status"), rs.getString("response_body")),
+                    claim.scope(), claim.owner(), claim.key());
+            if (rows.isEmpty()) {
+                return null;
+            }
+            StoredResponse row = rows.get(0);
+            checkSameRequest(row, requestHash);
+            if (row.status() == IdempotencyStatus.COMPLETED) {
+                completed.put(claim, row);
+                return row;
+            }
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS) > deadline) {
+                throw stillRunning();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for the first request with this "
+                        + HEADER);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, TypeReference<T> responseType,
+                                         StoredForm<T> storedForm) {
+        checkSameRequest(stored, requestHash);
+        try {
+            return ResponseEntity.status(stored.httpStatus())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(storedForm.fromStored(objectMapper.readValue(stored.body(), responseType)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response is not readable: " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkSameRequest(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new BadRequestException(HEADER + " was already used for a different request");
+        }
+    }
+
+    private static DuplicateResourceException stillRunning() {
+        return new DuplicateResourceException("A request with this " + HEADER + " is still being processed, "
+                + "retry later");
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash the request: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.exception.ResourceNotFoundException;
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.repo.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Order invoices, rendered once per order version and kept on disk.
+ *
+ * A cached PDF is keyed by order ID and the order's last modification time, so a changed order
+ * is never served from an older rendering; {@link #evict} removes the old files when an order
+ * changes. The key doubles as the ETag of the download. Invoices of delivered orders are
+ * rendered in the background right after delivery, so the customer's first download is a hit.
+ * Bulk exports render on a separate bounded pool and copy the cached files into a ZIP.
+ */
+@Service
+public class InvoiceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceService.class);
+
+    // Bump when the invoice layout changes so PDFs cached by an older release are not served
+    private static final int LAYOUT_VERSION = 1;
+
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS");
+
+    /**
+     * A rendered invoice and the entity tag identifying its content.
+     */
+    public record InvoiceFile(Path file, String etag) {
+    }
+
+    private final ReportService reportService;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path cacheDir;
+    private final Duration maxAge;
+    private final boolean prerenderDelivered;
+    private final ThreadPoolExecutor prerenderExecutor;
+    private final ThreadPoolExecutor exportExecutor;
+    private final int exportWindow;
+
+    public InvoiceService(ReportService reportService,
+                          OrderRepository orderRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.invoices.cache-dir:data/invoice-cache}") Path cacheDir,
+                          @Value("${app.invoices.max-age:30d}") Duration maxAge,
+                          @Value("${app.invoices.prerender-delivered:true}") boolean prerenderDelivered,
+                          @Value("${app.invoices.export-threads:4}") int exportThreads) throws IOException {
+        this.reportService = reportService;
+        this.orderRepository = orderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cacheDir = Files.createDirectories(cacheDir);
+        this.maxAge = maxAge;
+        this.prerenderDelivered = prerenderDelivered;
+        // Pre-rendering is only an optimization, so work beyond the queue is dropped
+        this.prerenderExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-prerender");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.prerenderExecutor.allowCoreThreadTimeOut(true);
+        // Each export keeps at most exportWindow renders queued or running, so the queue stays
+        // small without a capacity limit
+        AtomicInteger threadCount = new AtomicInteger();
+        this.exportExecutor = new ThreadPoolExecutor(exportThreads, exportThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-export-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.exportExecutor.allowCoreThreadTimeOut(true);
+        this.exportWindow = exportThreads * 2;
+    }
+
+    /**
+     * Returns the invoice of the current version of an order, rendering it on a cache miss.
+     *
+     * @throws ResourceNotFoundException if the order does not exist or was deleted
+     * @throws IOException if the invoice cannot be rendered or stored
+     */
+    public InvoiceFile getInvoice(Long orderId) throws IOException {
+        LocalDateTime version = orderRepository.findLastModified(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        Path cached = cacheFile(orderId, version);
+        if (Files.exists(cached)) {
+            return new InvoiceFile(cached, etag(orderId, version));
+        }
+        try {
+            return readOnlyTransaction.execute(status -> render(orderId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the invoices of all orders placed in a date range to the stream as a ZIP archive,
+     * one {@code invoice-<orderId>.pdf} entry per order. Invoices are rendered in parallel (or
+     * taken from the cache) and added in the order they become ready. Rendered PDFs go through
+     * the disk cache, so no document is held in memory, and at most a fixed window of renders
+     * per export is in flight. Orders whose invoice fails are listed in an {@code errors.txt}
+     * entry instead of aborting the archive. The stream is finished but not closed.
+     *
+     * @return number of invoices written
+     * @throws IOException if writing to the stream fails, e.g. because the client went away
+     */
+    public int writeInvoicesZip(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        List<Long> orderIds = orderRepository.findIdsByOrderDateBetween(
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        // PDF content streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        CompletionService<InvoiceFile> completion = new ExecutorCompletionService<>(exportExecutor);
+        Map<Future<InvoiceFile>, Long> inFlight = new HashMap<>();
+        Iterator<Long> pending = orderIds.iterator();
+        List<String> errors = new ArrayList<>();
+        int written = 0;
+        try {
+            while (inFlight.size() < exportWindow && pending.hasNext()) {
+                submitRender(completion, inFlight, pending.next());
+            }
+            while (!inFlight.isEmpty()) {
+                Future<InvoiceFile> done = completion.take();
+                Long orderId = inFlight.remove(done);
+                if (pending.hasNext()) {
+                    submitRender(completion, inFlight, pending.next());
+                }
+                try {
+                    addEntry(zip, orderId, done.get());
+                    written++;
+                } catch (ExecutionException | NoSuchFileException e) {
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    logger.warn("Invoice of order {} left out of the export: {}", orderId, cause.getMessage());
+                    errors.add("Order " + orderId + ": " + cause.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Invoice export interrupted", e);
+        } finally {
+            // Stop rendering for a client that went away
+            inFlight.keySet().forEach(future -> future.cancel(true));
+        }
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errors.txt"));
+            zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+        return written;
+    }
+
+    /**
+     * Deletes every cached rendering of an order. Called when the order changes.
+     */
+    public void evict(Long orderId) {
+        deleteRenderings(orderId, null);
+    }
+
+    /**
+     * Renders the invoice of a just delivered order in the background once the current
+     * transaction commits, unless pre-rendering is disabled.
+     */
+    public void prerenderDelivered(Long orderId) {
+        if (!prerenderDelivered) {
+            return;
+        }
+        Runnable prerender = () -> prerenderExecutor.execute(() -> {
+            try {
+                getInvoice(orderId);
+            } catch (Exception e) {
+                logger.warn("Could not pre-render invoice of order {}: {}", orderId, e.getMessage());
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    prerender.run();
+                }
+            });
+        } else {
+            prerender.run();
+        }
+    }
+
+    /**
+     * Deletes cached invoices not rendered within the maximum age, so the cache does not keep
+     * every order ever downloaded.
+     */
+    @Scheduled(fixedDelayString = "${app.invoices.cleanup-interval:3600000}")
+    public void removeOldInvoices() {
+        FileTime cutoff = FileTime.from(Instant.now().minus(maxAge));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "invoice-*.pdf")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clean up the invoice cache: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prerenderExecutor.shutdownNow();
+        exportExecutor.shutdownNow();
+    }
+
+    private void submitRender(CompletionService<InvoiceFile> completion, Map<Future<InvoiceFile>, Long> inFlight,
+                              Long orderId) {
+        inFlight.put(completion.submit(() -> getInvoice(orderId)), orderId);
+    }
+
+    private void addEntry(ZipOutputStream zip, Long orderId, InvoiceFile invoice) throws IOException {
+        Path file = invoice.file();
+        if (!Files.exists(file)) {
+            // Evicted by an order change since it was rendered
+            file = getInvoice(orderId).file();
+        }
+        zip.putNextEntry(new ZipEntry("invoice-" + orderId + ".pdf"));
+        Files.copy(file, zip);
+        zip.closeEntry();
+    }
+
+    private InvoiceFile render(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        LocalDateTime version = versionOf(order);
+        Path target = cacheFile(orderId, version);
+        try {
+            Path temp = Files.createTempFile(cacheDir, "render-", ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    reportService.writeOrderInvoicePDF(order, out);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render invoice of order " + orderId, e);
+        }
+        deleteRenderings(orderId, target);
+        return new InvoiceFile(target, etag(orderId, version));
+    }
+
+    private void deleteRenderings(Long orderId, Path keep) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "invoice-" + orderId + "-*.pdf")) {
+            for (Path file : files) {
+                if (!file.equals(keep)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove cached invoices of order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    private Path cacheFile(Long orderId, LocalDateTime version) {
+        return cacheDir.resolve("invoice-" + orderId + "-" + versionKey(version) + ".pdf");
+    }
+
+    private static String etag(Long orderId, LocalDateTime version) {
+        return "\"" + orderId + "-" + versionKey(version) + "\"";
+    }
+
+    private static String versionKey(LocalDateTime version) {
+        return (version != null ? VERSION_FORMAT.format(version) : "0") + "-v" + LAYOUT_VERSION;
+    }
+
+    private static LocalDateTime versionOf(Order order) {
+        return order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt();
+    }
+}
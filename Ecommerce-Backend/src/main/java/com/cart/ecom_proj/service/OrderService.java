@@ -2,6 +2,7 @@ package com.cart.ecom_proj.service;
 
 import com.cart.ecom_proj.dto.CreateOrderRequest;
 import com.cart.ecom_proj.dto.OrderItemRequest;
+import com.cart.ecom_proj.dto.ProductSummary;
 import com.cart.ecom_proj.dto.UpdateOrderStatusRequest;
 import com.cart.ecom_proj.exception.BadRequestException;
 import com.cart.ecom_proj.exception.ForbiddenException;
@@ -10,6 +11,8 @@ import com.cart.ecom_proj.exception.ResourceNotFoundException;
 import com.cart.ecom_proj.model.*;
 import com.cart.ecom_proj.repo.OrderRepository;
 import com.cart.ecom_proj.repo.ProductRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -20,7 +23,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class for managing order-related operations.
@@ -34,12 +40,26 @@ import java.util.List;
 @Transactional // Ensures all methods run within a transaction for data consistency
 public class OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
     private ProductRepo productRepo;
 
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
     // EmailService is optional to avoid system dependency on email functionality
     @Autowired(required = false)
     private EmailService emailService;
@@ -47,9 +67,9 @@ public class OrderService {
     /**
      * Creates a new order from the provided request data.
      * This method performs several critical operations:
-     * 1. Validates product availability and stock levels
-     * 2. Creates order items with current pricing
-     * 3. Updates product inventory
+     * 1. Merges lines for the same product, loads all products in one query and validates stock levels
+     * 2. Creates one order item per product with current pricing
+     * 3. Updates product inventory with a single guarded UPDATE
      * 4. Calculates total order amount
      * 5. Sends confirmation email
      * 
@@ -72,19 +92,34 @@ public class OrderService {
         order.setStatus(OrderStatus.PENDING);
         order.setPaymentStatus(PaymentStatus.PENDING);
 
+        // Collapse lines for the same product, keeping the order in which products first appear
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            quantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+
+        // Load all products with one query instead of one per line
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productRepo.findAllById(quantities.keySet())) {
+            products.put(product.getId(), product);
+        }
+
         // Initialize collections for order items and total calculation
-        List<OrderItem> orderItems = new ArrayList<>();
+        List<OrderItem> orderItems = new ArrayList<>(quantities.size());
         BigDecimal totalAmount = BigDecimal.ZERO;
 
-        // Process each item in the order request
-        for (OrderItemRequest itemRequest : request.getItems()) {
+        // Process each product in the order request
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
             // Verify product exists
-            Product product = productRepo.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemRequest.getProductId()));
+            Product product = products.get(line.getKey());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with id: " + line.getKey());
+            }
+            int quantity = line.getValue();
 
-            // Critical: Validate stock availability before creating order item
-            // This prevents overselling and maintains inventory integrity
-            if (product.getStockQuantity() < itemRequest.getQuantity()) {
+            // Fail early on stock that is already short; the stock update below is the authoritative check.
+            // The stored stock of hot products lags behind, so it is not checked here.
+            if (!hotSkuInventory.isHot(product.getId()) && product.getStockQuantity() < quantity) {
                 throw new InsufficientStockException(
                         "Insufficient stock for product: " + product.getName() + ". Available: " + product.getStockQuantity());
             }
@@ -93,17 +128,29 @@ public class OrderService {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
-            orderItem.setQuantity(itemRequest.getQuantity());
+            orderItem.setQuantity(quantity);
             orderItem.setPriceAtOrder(product.getPrice()); // Store current price to handle future price changes
             orderItem.calculateAndSetSubtotal(); // Calculate quantity * priceAtOrder
 
             orderItems.add(orderItem);
             totalAmount = totalAmount.add(orderItem.getSubtotal());
+        }
 
-            // Immediately update product stock to prevent race conditions
-            // This is done within the same transaction to ensure consistency
-            product.setStockQuantity(product.getStockQuantity() - itemRequest.getQuantity());
-            productRepo.save(product);
+        // Critical: Take the stock with one guarded UPDATE instead of read-modify-write, so concurrent
+        // orders cannot oversell. If any product is short, the exception rolls back the whole order.
+        // Hot products are taken from memory instead and given back if the order rolls back.
+        Map<Integer, Integer> storedQuantities = new HashMap<>();
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            int productId = line.getKey();
+            if (!hotSkuInventory.isHot(productId)) {
+                storedQuantities.put(productId, line.getValue());
+            } else if (!hotSkuInventory.take(productId, line.getValue())) {
+                throw new InsufficientStockException("Insufficient stock for product: "
+                        + products.get(productId).getName() + ". Available: " + hotSkuInventory.getAvailable(productId));
+            }
+        }
+        if (productRepo.decrementStock(storedQuantities) < storedQuantities.size()) {
+            throw insufficientStock(storedQuantities);
         }
 
         // Finalize order with all items and calculated total
@@ -112,6 +159,11 @@ public class OrderService {
 
         // Save order and all order items (cascaded)
         Order savedOrder = orderRepository.save(order);
+        salesRollupService.apply(null, SalesRollupService.Contribution.of(savedOrder));
+        // Stock of unpaid orders comes back if the payment does not arrive in time
+        if (StockReservationService.awaitsPayment(savedOrder.getPaymentMethod())) {
+            stockReservationService.hold(savedOrder);
+        }
         
         // Attempt to send order confirmation email (non-critical operation)
         if (emailService != null) {
@@ -198,10 +250,22 @@ public class OrderService {
      * @param request Update request containing new status and optional fields
      * @return Updated order object
      * @throws ResourceNotFoundException if order doesn't exist
+     * @throws BadRequestException if a cancelled order would be reopened (its stock was put back)
      */
     public Order updateOrderStatus(Long orderId, UpdateOrderStatusRequest request) {
+        if (request.getStatus() != OrderStatus.PENDING) {
+            // Keep the held stock of an order an admin moves on; done first so a running expiry finishes
+            stockReservationService.confirm(orderId);
+        }
         Order order = getOrderById(orderId);
         OrderStatus oldStatus = order.getStatus(); // Store old status for comparison
+
+        // Cancelled orders, including expired unpaid ones, have no stock behind them anymore
+        if (oldStatus == OrderStatus.CANCELLED && request.getStatus() != OrderStatus.CANCELLED) {
+            throw new BadRequestException("Cancelled order cannot be moved to " + request.getStatus()
+                    + ", its stock was put back");
+        }
+        SalesRollupService.Contribution before = SalesRollupService.Contribution.of(order);
         
         // Update order status and optional fields
         order.setStatus(request.getStatus());
@@ -218,6 +282,12 @@ public class OrderService {
         }
         
         Order savedOrder = orderRepository.save(order);
+        salesRollupService.apply(before, SalesRollupService.Contribution.of(savedOrder));
+        invoiceService.evict(orderId);
+        if (request.getStatus() == OrderStatus.DELIVERED && oldStatus != OrderStatus.DELIVERED) {
+            // Delivered orders no longer change, so have the invoice ready for download
+            invoiceService.prerenderDelivered(orderId);
+        }
         
         // Send status update notification if status actually changed
         if (emailService != null && !oldStatus.equals(request.getStatus())) {
@@ -245,6 +315,9 @@ public class OrderService {
      * @throws BadRequestException if order cannot be cancelled (wrong status)
      */
     public Order cancelOrder(Long orderId, Long userId) {
+        // Stock is restored below, so the hold must not expire as well. Done first so a running
+        // expiry finishes and the order is read after it.
+        stockReservationService.release(orderId);
         Order order = getOrderById(orderId);
         
         // Security check: Only order owner can cancel their order
@@ -256,14 +329,15 @@ public class OrderService {
         if (order.getStatus() != OrderStatus.PENDING && order.getStatus() != OrderStatus.CONFIRMED) {
             throw new BadRequestException("Order cannot be cancelled. Current status: " + order.getStatus());
         }
+        SalesRollupService.Contribution before = SalesRollupService.Contribution.of(order);
 
         // Critical: Restore product stock for all items in the cancelled order
         // This maintains inventory accuracy when orders are cancelled
+        Map<Integer, Integer> quantities = new HashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepo.save(product);
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        productRepo.incrementStock(hotSkuInventory.putBack(quantities));
 
         // Update order status to cancelled
         order.setStatus(OrderStatus.CANCELLED);
@@ -273,7 +347,10 @@ public class OrderService {
             order.setPaymentStatus(PaymentStatus.REFUNDED);
         }
         
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.apply(before, SalesRollupService.Contribution.of(savedOrder));
+        invoiceService.evict(orderId);
+        return savedOrder;
     }
 
     /**
@@ -308,15 +385,22 @@ public class OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
         
+        SalesRollupService.Contribution before = SalesRollupService.Contribution.of(order);
+        
         // Soft delete: Mark as deleted instead of physically removing from DB
         // This preserves referential integrity and allows for data recovery if needed
         order.setDeleted(true);
         orderRepository.save(order);
+        // Deleted orders are left out of the sales rollup
+        salesRollupService.apply(before, null);
+        invoiceService.evict(id);
     }
 
     /**
      * Updates the payment status of an order (webhook operation).
      * Used by payment gateways like Stripe to update payment status.
+     * A payment for an order that was cancelled meanwhile, e.g. because its hold expired, marks
+     * the payment for refund: the order's stock has already been put back on sale.
      * 
      * @param orderId Order ID to update
      * @param paymentStatus New payment status
@@ -324,7 +408,16 @@ public class OrderService {
      * @throws ResourceNotFoundException if order doesn't exist
      */
     public Order updateOrderPaymentStatus(Long orderId, PaymentStatus paymentStatus) {
+        if (paymentStatus == PaymentStatus.PAID) {
+            // Keep the held stock; done first so a running expiry finishes and the order is read after it
+            stockReservationService.confirm(orderId);
+        }
         Order order = getOrderById(orderId);
+        SalesRollupService.Contribution before = SalesRollupService.Contribution.of(order);
+        if (paymentStatus == PaymentStatus.PAID && order.getStatus() == OrderStatus.CANCELLED) {
+            logger.warn("Payment received for cancelled order {}, marking it for refund", orderId);
+            paymentStatus = PaymentStatus.REFUNDED;
+        }
         order.setPaymentStatus(paymentStatus);
         
         // If payment succeeded, we might want to move order to confirmed status
@@ -332,7 +425,24 @@ public class OrderService {
             order.setStatus(OrderStatus.CONFIRMED);
         }
         
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.apply(before, SalesRollupService.Contribution.of(savedOrder));
+        invoiceService.evict(orderId);
+        return savedOrder;
     }
-}
 
+    /**
+     * Builds the error for a stock update that did not go through, naming a product that is
+     * short according to the current stock levels.
+     */
+    private InsufficientStockException insufficientStock(Map<Integer, Integer> quantities) {
+        for (ProductSummary product : productRepo.findSummariesByIdIn(quantities.keySet())) {
+            if (product.getStockQuantity() < quantities.get(product.getId())) {
+                return new InsufficientStockException(
+                        "Insufficient stock for product: " + product.getName() + ". Available: " + product.getStockQuantity());
+            }
+        }
+        // The product was deleted meanwhile, or the stock changed again since the update
+        return new InsufficientStockException("Insufficient stock for one or more products in the order");
+    }
+}
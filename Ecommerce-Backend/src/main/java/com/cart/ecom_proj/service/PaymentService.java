@@ -33,6 +33,10 @@ public class PaymentService {
         return PaymentIntent.create(params);
     }
 
+    public PaymentIntent getPaymentIntent(String paymentIntentId) throws StripeException {
+        return PaymentIntent.retrieve(paymentIntentId);
+    }
+
     public PaymentIntent confirmPayment(String paymentIntentId) throws StripeException {
         PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
         return paymentIntent.confirm();
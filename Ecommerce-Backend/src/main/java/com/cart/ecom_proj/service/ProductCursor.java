@@ -0,0 +1,112 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.cart.ecom_proj.dto.ProductSummary;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a cursor-paginated product listing: the sort key and ID of the last product
+ * returned, plus its position in the result for listings ordered in memory.
+ *
+ * Clients only see the opaque, URL-safe encoded form. The cursor also records the sort it was
+ * created for, so it cannot be replayed against a listing in a different order.
+ */
+final class ProductCursor {
+
+    private final String sortBy;
+    private final boolean descending;
+    private final int lastId;
+    private final int position;
+    private final String lastValue;
+
+    private ProductCursor(String sortBy, boolean descending, int lastId, int position, String lastValue) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.position = position;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Cursor pointing after the given product of a database-ordered listing.
+     */
+    static ProductCursor after(ProductSummary product, String sortBy, boolean descending, int position) {
+        return new ProductCursor(sortBy, descending, product.getId(), position, formatValue(product, sortBy));
+    }
+
+    /**
+     * Cursor pointing after the given position of a listing ordered in memory.
+     */
+    static ProductCursor afterPosition(int productId, String sortBy, boolean descending, int position) {
+        return new ProductCursor(sortBy, descending, productId, position, "");
+    }
+
+    /**
+     * Decodes a cursor received from a client.
+     *
+     * @return the cursor, or null for a blank value (first page)
+     * @throws BadRequestException if the cursor is malformed or was created for a different sort
+     */
+    static ProductCursor decode(String encoded, String sortBy, boolean descending) {
+        if (encoded == null || encoded.isBlank()) {
+            return null;
+        }
+        ProductCursor cursor;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            // The value goes last since it is the only part that may contain the separator
+            String[] parts = decoded.split("\\|", 5);
+            cursor = new ProductCursor(parts[0], "desc".equals(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), parts[4]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!cursor.sortBy.equals(sortBy) || cursor.descending != descending) {
+            throw new BadRequestException("Cursor does not match the requested sort order");
+        }
+        return cursor;
+    }
+
+    String encode() {
+        String raw = sortBy + "|" + (descending ? "desc" : "asc") + "|" + lastId + "|" + position + "|" + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    int getLastId() {
+        return lastId;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return sort value of the last product, typed to match the sort field
+     */
+    Object getLastValue() {
+        try {
+            return switch (sortBy) {
+                case "price" -> new BigDecimal(lastValue);
+                case "stockQuantity" -> Integer.valueOf(lastValue);
+                case "id" -> lastId;
+                default -> lastValue;
+            };
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static String formatValue(ProductSummary product, String sortBy) {
+        return switch (sortBy) {
+            case "name" -> product.getName();
+            case "brand" -> product.getBrand();
+            case "category" -> product.getCategory();
+            case "price" -> product.getPrice().toPlainString();
+            case "stockQuantity" -> String.valueOf(product.getStockQuantity());
+            default -> "";
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ImportJobStatus;
+import com.cart.ecom_proj.dto.ImportRowError;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mutable progress of one import, written by the import thread and read by status requests.
+ */
+final class ProductImportJob {
+
+    private final String id = UUID.randomUUID().toString();
+    private final String fileName;
+    private final int maxReportedErrors;
+
+    private ImportJobStatus.State state = ImportJobStatus.State.QUEUED;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private final List<ImportRowError> errors = new ArrayList<>();
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    ProductImportJob(String fileName, int maxReportedErrors) {
+        this.fileName = fileName;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    synchronized void start() {
+        state = ImportJobStatus.State.RUNNING;
+        startedAt = LocalDateTime.now();
+    }
+
+    synchronized void rowRead() {
+        rowsRead++;
+    }
+
+    synchronized void rowsImported(int count) {
+        rowsImported += count;
+    }
+
+    synchronized void rowFailed(long line, String error) {
+        rowsFailed++;
+        addError(line, error);
+    }
+
+    synchronized void batchFailed(long firstLine, int rows, String error) {
+        rowsFailed += rows;
+        addError(firstLine, "Batch of " + rows + " rows starting here was not imported: " + error);
+    }
+
+    synchronized void complete() {
+        state = ImportJobStatus.State.COMPLETED;
+        finishedAt = LocalDateTime.now();
+    }
+
+    synchronized void fail(String reason) {
+        state = ImportJobStatus.State.FAILED;
+        message = reason;
+        finishedAt = LocalDateTime.now();
+    }
+
+    synchronized long getRowsImported() {
+        return rowsImported;
+    }
+
+    synchronized ImportJobStatus toStatus() {
+        return new ImportJobStatus(id, fileName, state, rowsRead, rowsImported, rowsFailed,
+                List.copyOf(errors), message, startedAt, finishedAt);
+    }
+
+    private void addError(long line, String error) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new ImportRowError(line, error));
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ImportJobStatus;
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.cart.ecom_proj.exception.ResourceNotFoundException;
+import com.cart.ecom_proj.model.Product;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from CSV files in the background.
+ *
+ * The file is read row by row, so memory use does not depend on its size. Each row is checked
+ * against the same constraints as {@link Product}; valid rows are inserted with JDBC batch
+ * statements, one transaction per batch, and invalid rows are reported with their line number.
+ * Imports run one at a time on a dedicated thread; progress is available by job ID until the
+ * job is among the oldest of the last {@value #MAX_RETAINED_JOBS} jobs.
+ *
+ * Accepted columns (matched case-insensitively by header name) are those of the product CSV
+ * export plus Description and ReleaseDate (yyyy-MM-dd). Name, Brand, Category and Price are
+ * required; an Id column is ignored and every row creates a new product.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    static final String INSERT_SQL = "INSERT INTO products (name, description, brand, category, price, release_date, "
+            + "product_available, stock_quantity, created_at, updated_at, created_by, updated_by, deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Insertion ordered so the oldest jobs are dropped first
+    private final Map<String, ProductImportJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * Saves the upload to a temporary file and queues its import.
+     *
+     * @param file     CSV file with a header row
+     * @param username user recorded as creator of the imported products
+     * @return status of the queued job, including the ID to poll
+     * @throws IOException if the upload cannot be saved
+     * @throws BadRequestException if no file was sent
+     */
+    public ImportJobStatus startImport(MultipartFile file, String username) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("A non-empty CSV file is required");
+        }
+        Path csv = Files.createTempFile("product-import-", ".csv");
+        file.transferTo(csv);
+
+        ProductImportJob job = new ProductImportJob(file.getOriginalFilename(), MAX_REPORTED_ERRORS);
+        register(job);
+        executor.execute(() -> {
+            try {
+                runImport(job, csv, username);
+            } finally {
+                try {
+                    Files.deleteIfExists(csv);
+                } catch (IOException e) {
+                    logger.warn("Could not delete import file {}", csv, e);
+                }
+            }
+        });
+        return job.toStatus();
+    }
+
+    /**
+     * @param jobId ID returned when the import was started
+     * @return current progress of the import
+     * @throws ResourceNotFoundException if the job is unknown or no longer retained
+     */
+    public ImportJobStatus getImportStatus(String jobId) {
+        ProductImportJob job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found: " + jobId);
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * Imports the file on the calling thread.
+     */
+    ImportJobStatus importFile(Path csv, String username) {
+        ProductImportJob job = new ProductImportJob(csv.getFileName().toString(), MAX_REPORTED_ERRORS);
+        register(job);
+        runImport(job, csv, username);
+        return job.toStatus();
+    }
+
+    private void register(ProductImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            // Drop the oldest finished jobs beyond the limit
+            jobs.values().removeIf(retained -> jobs.size() > MAX_RETAINED_JOBS && retained.isFinished());
+        }
+    }
+
+    private void runImport(ProductImportJob job, Path csv, String username) {
+        job.start();
+        long start = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             CSVReader csvReader = new CSVReader(reader)) {
+            Columns columns = Columns.of(csvReader.readNext());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            Timestamp today = Timestamp.valueOf(LocalDate.now().atStartOfDay());
+
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            long batchFirstLine = 0;
+            String[] row;
+            long line = csvReader.getLinesRead();
+            while ((row = csvReader.readNext()) != null) {
+                long rowLine = line + 1;
+                line = csvReader.getLinesRead();
+                if (row.length == 1 && row[0].isBlank()) {
+                    continue;
+                }
+                job.rowRead();
+
+                Product product;
+                try {
+                    product = columns.toProduct(row, today);
+                } catch (IllegalArgumentException e) {
+                    job.rowFailed(rowLine, e.getMessage());
+                    continue;
+                }
+                Set<ConstraintViolation<Product>> violations = validator.validate(product);
+                if (!violations.isEmpty()) {
+                    job.rowFailed(rowLine, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+
+                if (batch.isEmpty()) {
+                    batchFirstLine = rowLine;
+                }
+                batch.add(new Object[]{product.getName(), product.getDescription(), product.getBrand(),
+                        product.getCategory(), product.getPrice(), product.getReleaseDate(),
+                        product.isProductAvailable(), product.getStockQuantity(), now, now, username, username});
+                if (batch.size() >= batchSize) {
+                    insertBatch(job, transaction, batch, batchFirstLine);
+                }
+            }
+            insertBatch(job, transaction, batch, batchFirstLine);
+            job.complete();
+        } catch (BadRequestException e) {
+            job.fail(e.getMessage());
+        } catch (IOException | CsvValidationException | RuntimeException e) {
+            logger.error("Product import {} failed", job.getId(), e);
+            job.fail("Import stopped: " + e.getMessage());
+        } finally {
+            if (job.getRowsImported() > 0) {
+                // Imported rows bypass ProductService, so rebuild search structures and caches once at the end
+                productService.reloadCatalog();
+            }
+            ImportJobStatus status = job.toStatus();
+            logger.info("Product import {} finished as {}: {} rows read, {} imported, {} failed in {} ms",
+                    job.getId(), status.getState(), status.getRowsRead(), status.getRowsImported(),
+                    status.getRowsFailed(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private void insertBatch(ProductImportJob job, TransactionTemplate transaction, List<Object[]> batch,
+                             long firstLine) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+            job.rowsImported(batch.size());
+        } catch (DataAccessException e) {
+            job.batchFailed(firstLine, batch.size(), e.getMostSpecificCause().getMessage());
+        }
+        batch.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Positions of the known columns in the header row.
+     */
+    private static final class Columns {
+
+        private static final List<String> REQUIRED = List.of("name", "brand", "category", "price");
+
+        private final Map<String, Integer> positions;
+
+        private Columns(Map<String, Integer> positions) {
+            this.positions = positions;
+        }
+
+        static Columns of(String[] header) {
+            if (header == null) {
+                throw new BadRequestException("The CSV file is empty");
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                // Strip a UTF-8 byte order mark left by spreadsheet exports
+                String name = header[i].replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                positions.putIfAbsent(name, i);
+            }
+            List<String> missing = REQUIRED.stream().filter(column -> !positions.containsKey(column)).toList();
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("Missing required columns: " + String.join(", ", missing));
+            }
+            return new Columns(positions);
+        }
+
+        Product toProduct(String[] row, Timestamp defaultReleaseDate) {
+            Product product = new Product();
+            product.setName(value(row, "name"));
+            product.setDescription(value(row, "description"));
+            product.setBrand(value(row, "brand"));
+            product.setCategory(value(row, "category"));
+            product.setPrice(parsePrice(value(row, "price")));
+            String stock = value(row, "stockquantity");
+            product.setStockQuantity(stock != null ? parseInt("StockQuantity", stock) : 0);
+            String available = value(row, "available");
+            product.setProductAvailable(available != null ? parseBoolean(available) : product.getStockQuantity() > 0);
+            String releaseDate = value(row, "releasedate");
+            product.setReleaseDate(releaseDate != null ? parseDate(releaseDate) : defaultReleaseDate);
+            return product;
+        }
+
+        private String value(String[] row, String column) {
+            Integer position = positions.get(column);
+            if (position == null || position >= row.length) {
+                return null;
+            }
+            String value = row[position].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static BigDecimal parsePrice(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid Price '" + value + "'");
+            }
+        }
+
+        private static int parseInt(String column, String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+            }
+        }
+
+        private static boolean parseBoolean(String value) {
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "1" -> true;
+                case "false", "no", "0" -> false;
+                default -> throw new IllegalArgumentException("Invalid Available '" + value + "'");
+            };
+        }
+
+        private static Timestamp parseDate(String value) {
+            try {
+                return Timestamp.valueOf(LocalDate.parse(value).atStartOfDay());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid ReleaseDate '" + value + "', expected yyyy-MM-dd");
+            }
+        }
+    }
+}
@@ -1,21 +1,57 @@
 package com.cart.ecom_proj.service;
 
+import com.cart.ecom_proj.cache.CacheInvalidationBus;
+import com.cart.ecom_proj.dto.AdvancedSearchRequest;
+import com.cart.ecom_proj.dto.BulkProductUpdateResponse;
+import com.cart.ecom_proj.dto.CursorPage;
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.ProductUpdateItem;
+import com.cart.ecom_proj.dto.SearchFiltersResponse;
+import com.cart.ecom_proj.exception.BadRequestException;
 import com.cart.ecom_proj.exception.ResourceNotFoundException;
 import com.cart.ecom_proj.model.Product;
 import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.repo.ProductRepoCustom;
+import com.cart.ecom_proj.search.CatalogAggregates;
+import com.cart.ecom_proj.search.ProductSearchIndex;
+import com.cart.ecom_proj.search.ProductSuggestionIndex;
+import com.cart.ecom_proj.storage.ImageStore;
+import com.cart.ecom_proj.storage.ImageVariant;
+import com.cart.ecom_proj.storage.ImageVariantGenerator;
+import com.cart.ecom_proj.storage.StoredImage;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Service class for managing product-related operations.
@@ -27,6 +63,11 @@ import java.util.List;
 @Service
 public class ProductService {
 
+    // Upper bound for batch image requests - a page shows at most 48 products
+    public static final int MAX_BATCH_IMAGES = 100;
+
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private ProductRepo repo;
 
@@ -34,6 +75,36 @@ public class ProductService {
     @Autowired(required = false)
     private FileValidationService fileValidationService;
 
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggestionIndex suggestionIndex;
+
+    @Autowired
+    private CatalogAggregates catalogAggregates;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    /**
+     * Other backend nodes publish the IDs of products they changed; their entry in the product
+     * cache is evicted by the bus, the search structures and catalog list are refreshed here.
+     */
+    @PostConstruct
+    void subscribeToRemoteChanges() {
+        invalidationBus.subscribe("product", Integer::valueOf, this::onRemoteProductChange);
+    }
+
     /**
      * Retrieves all products from the database.
      * Note: This method returns all products without pagination - use with caution for large datasets.
@@ -41,8 +112,8 @@ public class ProductService {
      * @return List of all products
      */
     @Cacheable(value = "products")
-    public List<Product> getAllProducts() {
-        return repo.findAll();
+    public List<ProductSummary> getAllProducts() {
+        return repo.findAllSummaries();
     }
 
     /**
@@ -55,14 +126,33 @@ public class ProductService {
      * @param sortDir  Sort direction ("asc" for ascending, "desc" for descending)
      * @return Page containing products with pagination metadata
      */
-    public Page<Product> getAllProductsPaginated(int page, int size, String sortBy, String sortDir) {
+    public Page<ProductSummary> getAllProductsPaginated(int page, int size, String sortBy, String sortDir) {
         // Create sort object based on direction - defaults to ascending if not "desc"
         Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         
         // Create pageable object with page, size, and sort parameters
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return repo.findAll(pageable);
+        return repo.findAllSummaries(pageable);
+    }
+
+    /**
+     * Retrieves products with keyset (cursor) pagination.
+     * Unlike offset pagination there is no count query, and every page costs the same
+     * no matter how deep it is.
+     * 
+     * @param cursor  Cursor returned with the previous page, or null/blank for the first page
+     * @param size    Number of items per page (at most {@value #MAX_CURSOR_PAGE_SIZE})
+     * @param sortBy  Field to sort by (id, name, brand, category, price or stockQuantity)
+     * @param sortDir Sort direction ("asc" or "desc")
+     * @return Page of products with the cursor of the next page
+     * @throws BadRequestException if the cursor is invalid or the sort field is not supported
+     */
+    public CursorPage<ProductSummary> getProductsByCursor(String cursor, int size, String sortBy, String sortDir) {
+        AdvancedSearchRequest criteria = new AdvancedSearchRequest();
+        criteria.setSortBy(sortBy);
+        criteria.setSortDir(sortDir);
+        return advancedSearchProductsByCursor(criteria, cursor, size);
     }
 
     /**
@@ -81,14 +171,14 @@ public class ProductService {
 
     /**
      * Creates a new product with optional image upload.
-     * Handles image file validation, encoding, and storage.
+     * Handles image file validation and storage; resized variants are generated in the background.
      * 
      * @param product   Product object containing product details
      * @param imageFile Optional image file for the product
      * @return Saved product with generated ID
      * @throws IOException if image processing fails
      */
-    @CacheEvict(value = "products", allEntries = true)
+    @CachePut(value = "product", key = "#result.id")
     public Product addProduct(Product product, MultipartFile imageFile) throws IOException {
         // Process image file if provided
         if (imageFile != null && !imageFile.isEmpty()) {
@@ -97,14 +187,16 @@ public class ProductService {
                 fileValidationService.validateImageFile(imageFile);
             }
             
-            // Store image metadata and binary data
+            // Store image bytes in the image store and keep only metadata and the content hash on the product
             product.setImageName(imageFile.getOriginalFilename());
             product.setImageType(imageFile.getContentType());
-            product.setImageData(imageFile.getBytes()); // Convert to byte array for database storage
+            product.setImageHash(storeImage(imageFile));
         }
         
-        // Save product to database (JPA will auto-generate ID)
-        return repo.save(product);
+        // Save product to database (JPA will auto-generate ID) and make it searchable
+        Product savedProduct = repo.save(product);
+        indexProduct(savedProduct);
+        return savedProduct;
     }
 
     /**
@@ -118,7 +210,7 @@ public class ProductService {
      * @throws IOException if image processing fails
      * @throws ResourceNotFoundException if product with given ID doesn't exist
      */
-    @CacheEvict(value = {"product", "products"}, allEntries = true)
+    @CachePut(value = "product", key = "#id")
     public Product updateProduct(int id, Product product, MultipartFile imageFile) throws IOException {
         // First, retrieve the existing product to ensure it exists
         Product existingProduct = getProductById(id);
@@ -140,14 +232,154 @@ public class ProductService {
                 fileValidationService.validateImageFile(imageFile);
             }
             
-            // Replace existing image data with new image
-            existingProduct.setImageData(imageFile.getBytes());
+            // Replace existing image reference with the new image
+            existingProduct.setImageHash(storeImage(imageFile));
             existingProduct.setImageName(imageFile.getOriginalFilename());
             existingProduct.setImageType(imageFile.getContentType());
         }
         // Note: If no new image is provided, existing image data is preserved
         
-        return repo.save(existingProduct);
+        Product savedProduct = repo.save(existingProduct);
+        indexProduct(savedProduct);
+        return savedProduct;
+    }
+
+    /**
+     * Loads a product image from the image store in the requested size.
+     * Resized variants are generated in the background after upload; until one is available
+     * the original image is returned and generation is requested again.
+     * 
+     * @param product Product whose image to load
+     * @param variant Requested image size
+     * @return Image bytes and content type, or empty if the product has no image
+     * @throws IOException if the stored image cannot be read
+     */
+    public Optional<StoredImage> getProductImage(Product product, ImageVariant variant) throws IOException {
+        if (product.getImageHash() == null) {
+            return Optional.empty();
+        }
+        return loadImage(product.getImageHash(), variant, product.getImageType());
+    }
+
+    /**
+     * Loads the images of several products with a single query for their image references.
+     * Products without an image (or unknown ids) are left out of the result, and so are images whose
+     * resized variant is not available yet: the batch never falls back to the original (up to 5MB each),
+     * clients fetch those images one at a time instead.
+     * 
+     * @param ids     Product IDs, at most {@value #MAX_BATCH_IMAGES}
+     * @param variant Requested image size; originals (up to 5MB each) are only served one at a time
+     * @return Images keyed by product ID, in the order the IDs were requested
+     * @throws IOException if a stored image cannot be read
+     * @throws BadRequestException if too many IDs or the original size are requested
+     */
+    public Map<Integer, StoredImage> getProductImages(List<Integer> ids, ImageVariant variant) throws IOException {
+        if (!variant.isResized()) {
+            throw new BadRequestException("Original images cannot be requested in batch; use thumbnail, card or detail");
+        }
+        Set<Integer> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_BATCH_IMAGES) {
+            throw new BadRequestException("At most " + MAX_BATCH_IMAGES + " images can be requested at once");
+        }
+        Map<Integer, ProductImageRef> refs = new HashMap<>();
+        for (ProductImageRef ref : repo.findImageRefsByIdIn(uniqueIds)) {
+            refs.put(ref.getId(), ref);
+        }
+
+        Map<Integer, StoredImage> images = new LinkedHashMap<>();
+        for (Integer id : uniqueIds) {
+            ProductImageRef ref = refs.get(id);
+            if (ref == null || ref.getImageHash() == null) {
+                continue;
+            }
+            loadVariant(ref.getImageHash(), variant).ifPresent(img -> images.put(id, img));
+        }
+        return images;
+    }
+
+    /**
+     * Loads an image directly by its content hash (used by the versioned image URLs).
+     * The content type is detected from the image bytes.
+     * 
+     * @param hash    Content hash of the original image
+     * @param variant Requested image size
+     * @return Image bytes and content type, or empty if nothing is stored under the hash
+     * @throws IOException if the stored image cannot be read
+     */
+    public Optional<StoredImage> getImageByHash(String hash, ImageVariant variant) throws IOException {
+        if (!ImageStore.isValidHash(hash)) {
+            return Optional.empty();
+        }
+        return loadImage(hash, variant, null);
+    }
+
+    private Optional<StoredImage> loadImage(String hash, ImageVariant variant, String originalType) throws IOException {
+        if (variant.isResized()) {
+            Optional<StoredImage> resized = loadVariant(hash, variant);
+            if (resized.isPresent()) {
+                return resized;
+            }
+            // Variant not generated yet (or generation was dropped under load) - fall back to the original
+        }
+        return imageStore.get(hash).map(data -> new StoredImage(data,
+                originalType != null ? originalType : StoredImage.detectContentType(data), hash, ImageVariant.ORIGINAL));
+    }
+
+    private Optional<StoredImage> loadVariant(String hash, ImageVariant variant) throws IOException {
+        Optional<byte[]> resized = imageStore.getVariant(hash, variant);
+        if (resized.isEmpty()) {
+            imageVariantGenerator.generateAsync(hash);
+        }
+        return resized.map(data -> new StoredImage(data, MediaType.IMAGE_JPEG_VALUE, hash, variant));
+    }
+
+    /**
+     * Changes price, stock and/or availability of many products at once with batched SQL updates
+     * in one transaction. Only the cache entries and index entries of the updated products are
+     * refreshed.
+     * 
+     * @param updates  Changes, at most one per product; null fields keep their current value
+     * @param username User recorded as last modifier
+     * @return Number of updated products and the requested IDs that were not found
+     * @throws BadRequestException if a product appears twice or an update changes nothing
+     */
+    public BulkProductUpdateResponse bulkUpdateProducts(List<ProductUpdateItem> updates, String username) {
+        Set<Integer> ids = new HashSet<>();
+        for (ProductUpdateItem update : updates) {
+            if (!ids.add(update.getId())) {
+                throw new BadRequestException("Product " + update.getId() + " is updated more than once");
+            }
+            if (update.getPrice() == null && update.getStockQuantity() == null && update.getProductAvailable() == null) {
+                throw new BadRequestException("Update for product " + update.getId() + " has no fields to change");
+            }
+        }
+
+        List<Integer> updated = repo.bulkUpdate(updates, username);
+
+        // The rows were changed with SQL, so reload the touched products for the caches and indexes
+        Cache productCache = cacheManager.getCache("product");
+        for (Product product : repo.findAllById(updated)) {
+            if (productCache != null) {
+                productCache.evict(product.getId());
+            }
+            indexProduct(product);
+        }
+
+        Set<Integer> updatedIds = new HashSet<>(updated);
+        List<Integer> notFound = updates.stream()
+                .map(ProductUpdateItem::getId)
+                .filter(id -> !updatedIds.contains(id))
+                .toList();
+        return new BulkProductUpdateResponse(updated.size(), notFound);
+    }
+
+    /**
+     * Rebuilds the search structures and drops the cached catalog list after products were
+     * changed in bulk without going through this service, on this node and on the others.
+     */
+    public void reloadCatalog() {
+        rebuildLocalViews();
+        invalidationBus.publish("product", null);
     }
 
     /**
@@ -157,7 +389,7 @@ public class ProductService {
      * @param id ID of the product to delete
      * @throws ResourceNotFoundException if product with given ID doesn't exist
      */
-    @CacheEvict(value = {"product", "products"}, allEntries = true)
+    @CacheEvict(value = "product", key = "#id")
     public void deleteProduct(int id) {
         // Check if product exists before attempting deletion
         if (!repo.existsById(id)) {
@@ -166,35 +398,61 @@ public class ProductService {
         
         // Delete the product (cascade rules will handle related data if configured)
         repo.deleteById(id);
+        unindexProduct(id);
     }
 
     /**
-     * Searches for products by keyword across multiple fields.
+     * Searches for products by keyword across multiple fields, best matches first.
      * Note: Returns all matching results without pagination - use searchProductsPaginated for large result sets.
      * 
      * @param keyword Search term to match against product name, description, brand, or category
      * @return List of products matching the search criteria
      */
-    public List<Product> searchProducts(String keyword) {
-        return repo.searchProducts(keyword);
+    public List<ProductSummary> searchProducts(String keyword) {
+        if (!searchIndex.isReady()) {
+            // Search index is still being built at startup
+            return repo.searchProducts(keyword);
+        }
+        return loadInOrder(searchIndex.search(keyword, ProductSearchIndex.Filter.NONE,
+                ProductSearchIndex.SORT_RELEVANCE, false));
     }
 
     /**
      * Searches for products by keyword with pagination support.
-     * Recommended for production use to handle large search result sets efficiently.
+     * Matching and ranking run on the in-memory search index; only the requested page is loaded.
      * 
      * @param keyword Search term to match against product fields
      * @param page    Page number (0-based)
      * @param size    Number of items per page
-     * @param sortBy  Field to sort results by (defaults to "id" if null)
+     * @param sortBy  Field to sort results by (defaults to "relevance" if null)
+     * @param sortDir Sort direction ("asc" or "desc"); ignored when sorting by relevance
      * @return Page containing search results with pagination metadata
      */
-    public Page<Product> searchProductsPaginated(String keyword, int page, int size, String sortBy) {
-        // Default to sorting by ID if no sort field is specified
-        Sort sort = Sort.by(sortBy != null ? sortBy : "id");
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        return repo.searchProductsPaginated(keyword, pageable);
+    public Page<ProductSummary> searchProductsPaginated(String keyword, int page, int size, String sortBy, String sortDir) {
+        return searchIndexed(keyword, ProductSearchIndex.Filter.NONE, page, size, sortBy, sortDir,
+                pageable -> repo.searchProductsPaginated(keyword, pageable));
+    }
+
+    /**
+     * Returns typeahead suggestions (product names, brands and categories) for the text typed so far,
+     * most popular first. Served from memory without querying the database.
+     * 
+     * @param prefix Text typed so far
+     * @param limit  Maximum number of suggestions
+     * @return Suggestions starting with the prefix at the start of any word
+     */
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.min(limit, ProductSuggestionIndex.MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Returns the values available for the search filters: all categories and brands
+     * and the catalog price range. Served from memory without querying the database.
+     * 
+     * @return Categories, brands, minimum and maximum price
+     */
+    public SearchFiltersResponse getSearchFilters() {
+        return catalogAggregates.getFilters();
     }
 
     /**
@@ -205,7 +463,7 @@ public class ProductService {
      * @param size     Number of items per page
      * @return Page containing products in the specified category
      */
-    public Page<Product> filterProductsByCategoryPaginated(String category, int page, int size) {
+    public Page<ProductSummary> filterProductsByCategoryPaginated(String category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return repo.findByCategoryAndDeletedFalse(category, pageable);
     }
@@ -218,7 +476,7 @@ public class ProductService {
      * @param size  Number of items per page
      * @return Page containing products from the specified brand
      */
-    public Page<Product> filterProductsByBrandPaginated(String brand, int page, int size) {
+    public Page<ProductSummary> filterProductsByBrandPaginated(String brand, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return repo.findByBrandAndDeletedFalse(brand, pageable);
     }
@@ -233,7 +491,7 @@ public class ProductService {
      * @param size     Number of items per page
      * @return Page containing products within the specified price range
      */
-    public Page<Product> filterProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, int page, int size) {
+    public Page<ProductSummary> filterProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return repo.findByPriceBetween(minPrice, maxPrice, pageable);
     }
@@ -251,17 +509,222 @@ public class ProductService {
      * @param available Optional availability status filter
      * @param page      Page number (0-based)
      * @param size      Number of items per page
-     * @param sortBy    Field to sort by (defaults to "id" if null)
+     * @param sortBy    Field to sort by (defaults to "relevance" with a keyword and "id" without)
+     * @param sortDir   Sort direction ("asc" or "desc"); ignored when sorting by relevance
      * @return Page containing products matching all specified criteria
      */
-    public Page<Product> advancedSearchProducts(String keyword, String category, String brand, 
+    public Page<ProductSummary> advancedSearchProducts(String keyword, String category, String brand, 
                                                   BigDecimal minPrice, BigDecimal maxPrice, 
-                                                  Boolean available, int page, int size, String sortBy) {
-        // Default to sorting by ID if no sort field is specified
-        Sort sort = Sort.by(sortBy != null ? sortBy : "id");
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        // Delegate to repository method which handles the complex query logic
-        return repo.advancedSearch(keyword, category, brand, minPrice, maxPrice, available, pageable);
+                                                  Boolean available, int page, int size, String sortBy, String sortDir) {
+        if (keyword == null || keyword.isBlank()) {
+            // No text to match - the remaining filters are plain column comparisons
+            String sortField = sortBy == null || ProductSearchIndex.SORT_RELEVANCE.equals(sortBy) ? "id" : sortBy;
+            Pageable pageable = PageRequest.of(page, size, sort(sortField, sortDir));
+            return repo.advancedSearch(null, category, brand, minPrice, maxPrice, available, pageable);
+        }
+
+        ProductSearchIndex.Filter filter = new ProductSearchIndex.Filter(category, brand, minPrice, maxPrice, available);
+        return searchIndexed(keyword, filter, page, size, sortBy, sortDir,
+                pageable -> repo.advancedSearch(keyword, category, brand, minPrice, maxPrice, available, pageable));
+    }
+
+    /**
+     * Performs advanced search with keyset (cursor) pagination.
+     * With a keyword, matches come from the search index and only the products of the page are loaded;
+     * without one, the filters and a seek condition on the last sort key run in the database.
+     * 
+     * @param criteria Search filters and sort; page and size are ignored
+     * @param cursor   Cursor returned with the previous page, or null/blank for the first page
+     * @param size     Number of items per page (at most {@value #MAX_CURSOR_PAGE_SIZE})
+     * @return Page of matching products with the cursor of the next page
+     * @throws BadRequestException if the cursor is invalid or the sort field is not supported
+     */
+    public CursorPage<ProductSummary> advancedSearchProductsByCursor(AdvancedSearchRequest criteria, String cursor, int size) {
+        if (size <= 0 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        String keyword = criteria.getKeyword();
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        boolean descending = "desc".equalsIgnoreCase(criteria.getSortDir());
+        String sortBy = criteria.getSortBy();
+        if (sortBy == null || (!hasKeyword && ProductSearchIndex.SORT_RELEVANCE.equals(sortBy))) {
+            sortBy = hasKeyword ? ProductSearchIndex.SORT_RELEVANCE : "id";
+        }
+        ProductCursor after = ProductCursor.decode(cursor, sortBy, descending);
+
+        if (hasKeyword && searchIndex.isReady()) {
+            if (!ProductSearchIndex.supportsSort(sortBy)) {
+                throw new BadRequestException("Cursor pagination of search results is not supported for sort field: " + sortBy);
+            }
+            ProductSearchIndex.Filter filter = new ProductSearchIndex.Filter(criteria.getCategory(), criteria.getBrand(),
+                    criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getAvailable());
+            List<Integer> ids = searchIndex.search(keyword, filter, sortBy, descending);
+            int from = after == null ? 0 : resumePosition(ids, after);
+            int to = Math.min(from + size, ids.size());
+            List<Integer> pageIds = ids.subList(from, to);
+            boolean hasNext = to < ids.size();
+            String nextCursor = hasNext
+                    ? ProductCursor.afterPosition(pageIds.get(pageIds.size() - 1), sortBy, descending, to).encode() : null;
+            return new CursorPage<>(loadInOrder(pageIds), size, hasNext, nextCursor);
+        }
+
+        // Relevance needs the search index; while it is still being built, keyword matches are ordered by id
+        String seekField = ProductSearchIndex.SORT_RELEVANCE.equals(sortBy) ? "id" : sortBy;
+        if (!ProductRepoCustom.SEEK_SORT_FIELDS.contains(seekField)) {
+            throw new BadRequestException("Cursor pagination is not supported for sort field: " + sortBy);
+        }
+        criteria.setSortBy(seekField);
+        // Fetch one extra row to learn whether there is a next page without counting
+        List<ProductSummary> rows = repo.findAfter(criteria, after != null ? after.getLastValue() : null,
+                after != null ? after.getLastId() : null, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<ProductSummary> content = hasNext ? rows.subList(0, size) : rows;
+        int position = (after != null ? after.getPosition() : 0) + content.size();
+        String nextCursor = hasNext
+                ? ProductCursor.after(content.get(content.size() - 1), sortBy, descending, position).encode() : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
+
+    /**
+     * Position to continue an in-memory ordered result from: right after the last product shown,
+     * or at its previous position if that product no longer matches.
+     */
+    private static int resumePosition(List<Integer> ids, ProductCursor after) {
+        int expected = after.getPosition();
+        if (expected > 0 && expected <= ids.size() && ids.get(expected - 1) == after.getLastId()) {
+            return expected;
+        }
+        int index = ids.indexOf(after.getLastId());
+        return index >= 0 ? index + 1 : Math.min(expected, ids.size());
+    }
+
+    private Page<ProductSummary> searchIndexed(String keyword, ProductSearchIndex.Filter filter, int page, int size,
+                                        String sortBy, String sortDir, Function<Pageable, Page<ProductSummary>> databaseSearch) {
+        String sortField = sortBy != null ? sortBy : ProductSearchIndex.SORT_RELEVANCE;
+        boolean relevance = ProductSearchIndex.SORT_RELEVANCE.equals(sortField);
+
+        if (!searchIndex.isReady()) {
+            // Search index is still being built at startup - use the (slow) database query meanwhile
+            return databaseSearch.apply(PageRequest.of(page, size, sort(relevance ? "id" : sortField, sortDir)));
+        }
+
+        Pageable pageable = PageRequest.of(page, size);
+        if (!ProductSearchIndex.supportsSort(sortField)) {
+            // The index only keeps the common sort attributes; let the database order the matches by anything else
+            List<Integer> ids = searchIndex.search(keyword, filter, ProductSearchIndex.SORT_RELEVANCE, false);
+            return ids.isEmpty() ? Page.empty(pageable)
+                    : repo.findSummariesByIdIn(ids, PageRequest.of(page, size, sort(sortField, sortDir)));
+        }
+
+        List<Integer> ids = searchIndex.search(keyword, filter, sortField, "desc".equalsIgnoreCase(sortDir));
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + size, ids.size());
+        return new PageImpl<>(loadInOrder(ids.subList(from, to)), pageable, ids.size());
+    }
+
+    private List<ProductSummary> loadInOrder(List<Integer> ids) {
+        Map<Integer, ProductSummary> byId = new HashMap<>();
+        for (ProductSummary product : repo.findSummariesByIdIn(ids)) {
+            byId.put(product.getId(), product);
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static Sort sort(String sortBy, String sortDir) {
+        return "desc".equalsIgnoreCase(sortDir) ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+    }
+
+    // Keep the in-memory search structures and the cached catalog in line with the database after every write,
+    // on this node and (through the invalidation bus) on the others
+    private void indexProduct(Product product) {
+        refreshLocalViews(product);
+        invalidationBus.publish("product", product.getId());
+    }
+
+    private void unindexProduct(int id) {
+        removeLocalViews(id);
+        invalidationBus.publish("product", id);
+    }
+
+    private void onRemoteProductChange(Integer id) {
+        if (id == null) {
+            rebuildLocalViews();
+        } else {
+            repo.findById(id).ifPresentOrElse(this::refreshLocalViews, () -> removeLocalViews(id));
+        }
+    }
+
+    private void rebuildLocalViews() {
+        searchIndex.rebuild();
+        suggestionIndex.rebuild();
+        catalogAggregates.rebuild();
+        Cache cache = cacheManager.getCache("products");
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void refreshLocalViews(Product product) {
+        searchIndex.index(product);
+        suggestionIndex.index(product);
+        catalogAggregates.index(product);
+        patchCachedProductList(product.getId(), product.isDeleted() ? null : ProductSummary.of(product));
+    }
+
+    private void removeLocalViews(int id) {
+        searchIndex.remove(id);
+        suggestionIndex.remove(id);
+        catalogAggregates.remove(id);
+        patchCachedProductList(id, null);
+    }
+
+    /**
+     * Replaces, appends or removes one product in the cached result of {@link #getAllProducts()}
+     * instead of evicting it, so a single edit does not send every listing back to the database.
+     * Nothing is done when the list is not cached; the next read loads it fresh.
+     *
+     * @param id      ID of the written product
+     * @param summary New state of the product, or null if it was deleted
+     */
+    @SuppressWarnings("unchecked")
+    private void patchCachedProductList(int id, ProductSummary summary) {
+        Cache cache = cacheManager.getCache("products");
+        if (cache == null) {
+            return;
+        }
+        // Serialize patches so two concurrent writes cannot each drop the other's change
+        synchronized (cache) {
+            Cache.ValueWrapper cached = cache.get(SimpleKey.EMPTY);
+            if (cached == null || !(cached.get() instanceof List<?>)) {
+                return;
+            }
+            List<ProductSummary> products = new ArrayList<>((List<ProductSummary>) cached.get());
+            boolean found = false;
+            for (int i = 0; i < products.size(); i++) {
+                if (products.get(i).getId() == id) {
+                    if (summary != null) {
+                        products.set(i, summary);
+                    } else {
+                        products.remove(i);
+                    }
+                    found = true;
+                    break;
+                }
+            }
+            if (!found && summary != null) {
+                products.add(summary);
+            }
+            cache.put(SimpleKey.EMPTY, products);
+        }
+    }
+
+    private String storeImage(MultipartFile imageFile) throws IOException {
+        String hash;
+        try (InputStream in = imageFile.getInputStream()) {
+            hash = imageStore.put(in);
+        }
+        // Produce thumbnail/card/detail sizes off the request thread
+        imageVariantGenerator.generateAsync(hash);
+        return hash;
     }
 }
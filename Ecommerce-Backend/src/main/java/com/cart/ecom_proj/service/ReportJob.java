@@ -0,0 +1,108 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ReportJobStatus;
+import com.cart.ecom_proj.dto.ReportType;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one report job, written by its worker thread and read by status and download requests.
+ */
+final class ReportJob {
+
+    private final String id = UUID.randomUUID().toString();
+    private final ReportType type;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final LocalDateTime requestedAt = LocalDateTime.now();
+    // Updated for every chunk written, so kept outside the monitor
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private ReportJobStatus.State state = ReportJobStatus.State.QUEUED;
+    private Path file;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    ReportJob(ReportType type, LocalDate startDate, LocalDate endDate) {
+        this.type = type;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Jobs with the same key produce the same report.
+     */
+    static String key(ReportType type, LocalDate startDate, LocalDate endDate) {
+        return type + "|" + startDate + "|" + endDate;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getKey() {
+        return key(type, startDate, endDate);
+    }
+
+    ReportType getType() {
+        return type;
+    }
+
+    LocalDate getStartDate() {
+        return startDate;
+    }
+
+    LocalDate getEndDate() {
+        return endDate;
+    }
+
+    String getFileName() {
+        return type.getFileNamePrefix() + "-" + startDate + "-to-" + endDate + "." + type.getExtension();
+    }
+
+    void bytesWritten(long count) {
+        bytesWritten.addAndGet(count);
+    }
+
+    synchronized void start() {
+        state = ReportJobStatus.State.RUNNING;
+        startedAt = LocalDateTime.now();
+    }
+
+    synchronized void complete(Path file) {
+        this.file = file;
+        state = ReportJobStatus.State.COMPLETED;
+        finishedAt = LocalDateTime.now();
+    }
+
+    synchronized void fail(String reason) {
+        state = ReportJobStatus.State.FAILED;
+        message = reason;
+        finishedAt = LocalDateTime.now();
+    }
+
+    synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    synchronized boolean finishedBefore(LocalDateTime time) {
+        return finishedAt != null && finishedAt.isBefore(time);
+    }
+
+    /**
+     * @return the rendered report, or null until the job has completed
+     */
+    synchronized Path getFile() {
+        return file;
+    }
+
+    synchronized ReportJobStatus toStatus(String downloadUrl) {
+        return new ReportJobStatus(id, type, startDate, endDate, state, getFileName(), bytesWritten.get(), message,
+                state == ReportJobStatus.State.COMPLETED ? downloadUrl : null, requestedAt, startedAt, finishedAt);
+    }
+}
@@ -0,0 +1,250 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ReportJobRequest;
+import com.cart.ecom_proj.dto.ReportJobStatus;
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.cart.ecom_proj.exception.ResourceNotFoundException;
+import com.cart.ecom_proj.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates reports in the background so large date ranges do not hold a request thread.
+ *
+ * Jobs run on a bounded pool and render through {@link ReportService} into a spool file, which
+ * is then served by the download endpoint. A request for a report that is already queued or
+ * running returns that job instead of rendering the same report twice. Finished jobs and their
+ * files are kept for the retention period; when the queue is full new jobs are refused.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    private final ReportService reportService;
+    private final Path spoolDir;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+
+    // Insertion ordered so the oldest jobs are dropped first
+    private final Map<String, ReportJob> jobs = new LinkedHashMap<>();
+    // Queued and running jobs by report key, guarded by the jobs lock
+    private final Map<String, ReportJob> activeJobs = new HashMap<>();
+
+    public ReportJobService(ReportService reportService,
+                            @Value("${app.reports.spool-dir:${java.io.tmpdir}/ecom-reports}") Path spoolDir,
+                            @Value("${app.reports.retention:1h}") Duration retention,
+                            @Value("${app.reports.workers:2}") int workers,
+                            @Value("${app.reports.queue-capacity:20}") int queueCapacity) throws IOException {
+        this.reportService = reportService;
+        this.spoolDir = Files.createDirectories(spoolDir);
+        this.retention = retention;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a report, or joins the identical report already queued or running.
+     *
+     * @return status of the job generating the report, including the ID to poll
+     * @throws BadRequestException if the start date is after the end date
+     * @throws ServiceUnavailableException if too many reports are queued
+     */
+    public ReportJobStatus submit(ReportJobRequest request) {
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new BadRequestException("Start date must not be after end date");
+        }
+        ReportJob job;
+        synchronized (jobs) {
+            String key = ReportJob.key(request.getType(), request.getStartDate(), request.getEndDate());
+            ReportJob running = activeJobs.get(key);
+            if (running != null) {
+                return toStatus(running);
+            }
+            job = new ReportJob(request.getType(), request.getStartDate(), request.getEndDate());
+            try {
+                executor.execute(() -> render(job));
+            } catch (RejectedExecutionException e) {
+                throw new ServiceUnavailableException("Too many reports are being generated, please retry later");
+            }
+            activeJobs.put(key, job);
+            jobs.put(job.getId(), job);
+            dropOldestFinishedJobs();
+        }
+        return toStatus(job);
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the job is unknown or has expired
+     */
+    public ReportJobStatus getStatus(String jobId) {
+        return toStatus(findJob(jobId));
+    }
+
+    /**
+     * @return the rendered report of a completed job
+     * @throws ResourceNotFoundException if the job is unknown or has expired
+     * @throws BadRequestException if the report is not ready yet or failed
+     */
+    public Path getReportFile(String jobId) {
+        Path file = findJob(jobId).getFile();
+        if (file == null) {
+            throw new BadRequestException("Report is not ready");
+        }
+        return file;
+    }
+
+    /**
+     * Forgets finished jobs past the retention period and deletes their files.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-interval:60000}")
+    public void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        List<ReportJob> expired;
+        synchronized (jobs) {
+            expired = jobs.values().stream().filter(job -> job.finishedBefore(cutoff)).toList();
+            expired.forEach(job -> jobs.remove(job.getId()));
+        }
+        expired.forEach(this::deleteFile);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void render(ReportJob job) {
+        job.start();
+        long start = System.currentTimeMillis();
+        Path file = null;
+        try {
+            file = Files.createTempFile(spoolDir, "report-", "." + job.getType().getExtension());
+            try (OutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024), job)) {
+                switch (job.getType()) {
+                    case ORDERS_PDF -> reportService.writeOrderReportPDF(job.getStartDate(), job.getEndDate(), out);
+                    case SALES_CSV -> reportService.writeSalesReportCSV(job.getStartDate(), job.getEndDate(), out);
+                }
+            }
+            finish(job, file, null);
+            logger.info("Report {} {} generated in {} ms", job.getId(), job.getFileName(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Report {} {} failed", job.getId(), job.getFileName(), e);
+            deleteQuietly(file);
+            finish(job, null, "Report generation failed");
+        }
+    }
+
+    /**
+     * Marks the job finished and stops new requests from joining it, in one step so a request
+     * never joins a job that will not produce its report.
+     */
+    private void finish(ReportJob job, Path file, String failure) {
+        synchronized (jobs) {
+            activeJobs.remove(job.getKey(), job);
+            if (failure == null) {
+                job.complete(file);
+            } else {
+                job.fail(failure);
+            }
+        }
+    }
+
+    private ReportJob findJob(String jobId) {
+        ReportJob job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void dropOldestFinishedJobs() {
+        var iterator = jobs.values().iterator();
+        while (jobs.size() > MAX_RETAINED_JOBS && iterator.hasNext()) {
+            ReportJob job = iterator.next();
+            if (job.isFinished()) {
+                iterator.remove();
+                deleteFile(job);
+            }
+        }
+    }
+
+    private void deleteFile(ReportJob job) {
+        deleteQuietly(job.getFile());
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report file {}", file, e);
+        }
+    }
+
+    private static ReportJobStatus toStatus(ReportJob job) {
+        return job.toStatus("/api/reports/admin/jobs/" + job.getId() + "/download");
+    }
+
+    /**
+     * Reports the bytes written to the job as its progress.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final ReportJob job;
+
+        CountingOutputStream(OutputStream out, ReportJob job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.bytesWritten(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            job.bytesWritten(len);
+        }
+    }
+}
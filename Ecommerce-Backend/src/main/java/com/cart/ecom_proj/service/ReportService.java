@@ -1,5 +1,7 @@
 package com.cart.ecom_proj.service;
 
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.SalesReportRow;
 import com.cart.ecom_proj.model.Order;
 import com.cart.ecom_proj.model.OrderItem;
 import com.cart.ecom_proj.model.Product;
@@ -15,20 +17,25 @@ import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.UnitValue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
 import java.util.Locale;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
 
+    private static final int PDF_TABLE_FLUSH_ROWS = 500;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -36,149 +43,157 @@ public class ReportService {
     private ProductRepo productRepo;
 
     /**
-     * Generate a simple invoice PDF for an order.
+     * Write a simple invoice PDF for an order to the given stream. The order's items must be
+     * loadable, i.e. this runs inside the transaction that loaded the order. The stream is
+     * flushed but not closed.
      */
-    public byte[] generateOrderInvoicePDF(Long orderId) throws IOException {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-
-            document.add(new Paragraph(String.format(Locale.US, "Invoice - Order #%d", order.getId())).setBold());
-            document.add(new Paragraph(" "));
-
-            // Order basic info
-            Table infoTable = new Table(new float[]{1, 2});
-            infoTable.setWidth(UnitValue.createPercentValue(100));
-            infoTable.addCell(new Cell().add(new Paragraph("Order ID:")));
-            infoTable.addCell(new Cell().add(new Paragraph(String.valueOf(order.getId()))));
-            infoTable.addCell(new Cell().add(new Paragraph("Order Date:")));
-            infoTable.addCell(new Cell().add(new Paragraph(String.valueOf(order.getOrderDate()))));
-            infoTable.addCell(new Cell().add(new Paragraph("Customer:")));
-            infoTable.addCell(new Cell().add(new Paragraph(order.getUser() != null ? order.getUser().getUsername() : "N/A")));
-            document.add(infoTable);
-
-            document.add(new Paragraph(" "));
-
-            // Items table
-            Table table = new Table(new float[]{4, 1, 2, 2});
-            table.setWidth(UnitValue.createPercentValue(100));
-            table.addHeaderCell(new Cell().add(new Paragraph("Product")));
-            table.addHeaderCell(new Cell().add(new Paragraph("Qty")));
-            table.addHeaderCell(new Cell().add(new Paragraph("Unit Price")));
-            table.addHeaderCell(new Cell().add(new Paragraph("Subtotal")));
-
-            for (OrderItem item : order.getOrderItems()) {
-                Product p = item.getProduct();
-                String name = p != null ? p.getName() : "(deleted product)";
-                table.addCell(new Cell().add(new Paragraph(name)));
-                table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getQuantity()))));
-                table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getPriceAtOrder()))));
-                table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getSubtotal()))));
-            }
+    public void writeOrderInvoicePDF(Order order, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        Document document = new Document(pdf);
+
+        document.add(new Paragraph(String.format(Locale.US, "Invoice - Order #%d", order.getId())).setBold());
+        document.add(new Paragraph(" "));
+
+        // Order basic info
+        Table infoTable = new Table(new float[]{1, 2});
+        infoTable.setWidth(UnitValue.createPercentValue(100));
+        infoTable.addCell(new Cell().add(new Paragraph("Order ID:")));
+        infoTable.addCell(new Cell().add(new Paragraph(String.valueOf(order.getId()))));
+        infoTable.addCell(new Cell().add(new Paragraph("Order Date:")));
+        infoTable.addCell(new Cell().add(new Paragraph(String.valueOf(order.getOrderDate()))));
+        infoTable.addCell(new Cell().add(new Paragraph("Customer:")));
+        infoTable.addCell(new Cell().add(new Paragraph(order.getUser() != null ? order.getUser().getUsername() : "N/A")));
+        document.add(infoTable);
+
+        document.add(new Paragraph(" "));
+
+        // Items table
+        Table table = new Table(new float[]{4, 1, 2, 2});
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.addHeaderCell(new Cell().add(new Paragraph("Product")));
+        table.addHeaderCell(new Cell().add(new Paragraph("Qty")));
+        table.addHeaderCell(new Cell().add(new Paragraph("Unit Price")));
+        table.addHeaderCell(new Cell().add(new Paragraph("Subtotal")));
+
+        for (OrderItem item : order.getOrderItems()) {
+            Product p = item.getProduct();
+            String name = p != null ? p.getName() : "(deleted product)";
+            table.addCell(new Cell().add(new Paragraph(name)));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getQuantity()))));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getPriceAtOrder()))));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getSubtotal()))));
+        }
 
-            // Totals
-            document.add(table);
-            document.add(new Paragraph(" "));
-            document.add(new Paragraph(String.format("Total: $%s", order.getTotalAmount() != null ? order.getTotalAmount().toString() : "0.00")).setBold());
+        // Totals
+        document.add(table);
+        document.add(new Paragraph(" "));
+        document.add(new Paragraph(String.format("Total: $%s", order.getTotalAmount() != null ? order.getTotalAmount().toString() : "0.00")).setBold());
 
-            document.close();
-            return baos.toByteArray();
-        }
+        document.close();
+        out.flush();
     }
 
     /**
-     * Export a product list as CSV
+     * Write the product list as CSV to the given stream, row by row as products are read from the
+     * database, so memory use does not depend on the catalog size. The stream is flushed but not closed.
      */
-    public byte[] generateProductListCSV() throws IOException {
-        List<Product> products = productRepo.findAll();
-
-        try (StringWriter sw = new StringWriter(); CSVWriter writer = new CSVWriter(sw)) {
-            // header
-            String[] header = new String[]{"Id", "Name", "Brand", "Category", "Price", "StockQuantity", "Available"};
-            writer.writeNext(header);
-
-            for (Product p : products) {
-                String[] row = new String[]{
-                        String.valueOf(p.getId()),
-                        p.getName(),
-                        p.getBrand(),
-                        p.getCategory(),
-                        p.getPrice() != null ? p.getPrice().toString() : "",
-                        String.valueOf(p.getStockQuantity()),
-                        String.valueOf(p.isProductAvailable())
-                };
-                writer.writeNext(row);
-            }
-            writer.flush();
-            return sw.toString().getBytes();
+    @Transactional(readOnly = true)
+    public void writeProductListCSV(OutputStream out) throws IOException {
+        CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        // header
+        String[] header = new String[]{"Id", "Name", "Brand", "Category", "Price", "StockQuantity", "Available"};
+        writer.writeNext(header);
+
+        try (Stream<ProductSummary> products = productRepo.streamAllSummaries()) {
+            products.forEach(p -> writer.writeNext(new String[]{
+                    String.valueOf(p.getId()),
+                    p.getName(),
+                    p.getBrand(),
+                    p.getCategory(),
+                    p.getPrice() != null ? p.getPrice().toString() : "",
+                    String.valueOf(p.getStockQuantity()),
+                    String.valueOf(p.isProductAvailable())
+            }));
+        }
+        writer.flush();
+        if (writer.checkError()) {
+            throw new IOException("Failed to write product CSV");
         }
     }
 
     /**
-     * Generate an orders report PDF for a date range.
+     * Write an orders report PDF for a date range to the given stream. Orders are read as they are
+     * added to the document and the table is flushed in chunks, so memory use does not depend on
+     * the number of orders. The stream is flushed but not closed.
      */
-    public byte[] generateOrderReportPDF(LocalDate startDate, LocalDate endDate) throws IOException {
+    @Transactional(readOnly = true)
+    public void writeOrderReportPDF(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
-        List<Order> orders = orderRepository.findByOrderDateBetweenAndDeletedFalse(start, end);
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
 
-            document.add(new Paragraph(String.format("Orders Report (%s - %s)", startDate, endDate)).setBold());
-            document.add(new Paragraph(" "));
-
-            Table table = new Table(new float[]{1, 2, 2, 2});
-            table.setWidth(UnitValue.createPercentValue(100));
-            table.addHeaderCell(new Cell().add(new Paragraph("Order ID")));
-            table.addHeaderCell(new Cell().add(new Paragraph("Date")));
-            table.addHeaderCell(new Cell().add(new Paragraph("Customer")));
-            table.addHeaderCell(new Cell().add(new Paragraph("Total")));
-
-            for (Order o : orders) {
-                table.addCell(new Cell().add(new Paragraph(String.valueOf(o.getId()))));
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        Document document = new Document(pdf);
+
+        document.add(new Paragraph(String.format("Orders Report (%s - %s)", startDate, endDate)).setBold());
+        document.add(new Paragraph(" "));
+
+        // Large table: rows already laid out are written out on flush()
+        Table table = new Table(new float[]{1, 2, 2, 2}, true);
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.addHeaderCell(new Cell().add(new Paragraph("Order ID")));
+        table.addHeaderCell(new Cell().add(new Paragraph("Date")));
+        table.addHeaderCell(new Cell().add(new Paragraph("Customer")));
+        table.addHeaderCell(new Cell().add(new Paragraph("Total")));
+        document.add(table);
+
+        try (Stream<SalesReportRow> rows = orderRepository.streamSalesReportRows(start, end)) {
+            int count = 0;
+            for (SalesReportRow o : (Iterable<SalesReportRow>) rows::iterator) {
+                table.addCell(new Cell().add(new Paragraph(String.valueOf(o.getOrderId()))));
                 table.addCell(new Cell().add(new Paragraph(String.valueOf(o.getOrderDate()))));
-                table.addCell(new Cell().add(new Paragraph(o.getUser() != null ? o.getUser().getUsername() : "N/A")));
+                table.addCell(new Cell().add(new Paragraph(o.getCustomer() != null ? o.getCustomer() : "N/A")));
                 table.addCell(new Cell().add(new Paragraph(o.getTotalAmount() != null ? o.getTotalAmount().toString() : "0.00")));
+                if (++count % PDF_TABLE_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
             }
-
-            document.add(table);
-            document.close();
-            return baos.toByteArray();
         }
+
+        table.complete();
+        document.close();
+        out.flush();
     }
 
     /**
-     * Generate a CSV containing sales/orders rows for a date range.
+     * Write the sales/orders rows for a date range as CSV to the given stream, row by row as orders
+     * are read from the database. The stream is flushed but not closed.
      */
-    public byte[] generateSalesReportCSV(LocalDate startDate, LocalDate endDate) throws IOException {
+    @Transactional(readOnly = true)
+    public void writeSalesReportCSV(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
-        List<Order> orders = orderRepository.findByOrderDateBetweenAndDeletedFalse(start, end);
-
-        try (StringWriter sw = new StringWriter(); CSVWriter writer = new CSVWriter(sw)) {
-            String[] header = new String[]{"OrderId", "OrderDate", "Customer", "TotalAmount", "PaymentStatus", "Status"};
-            writer.writeNext(header);
-
-            for (Order o : orders) {
-                String[] row = new String[]{
-                        String.valueOf(o.getId()),
-                        String.valueOf(o.getOrderDate()),
-                        o.getUser() != null ? o.getUser().getUsername() : "N/A",
-                        o.getTotalAmount() != null ? o.getTotalAmount().toString() : "0.00",
-                        o.getPaymentStatus() != null ? o.getPaymentStatus().name() : "",
-                        o.getStatus() != null ? o.getStatus().name() : ""
-                };
-                writer.writeNext(row);
-            }
-            writer.flush();
-            return sw.toString().getBytes();
+
+        CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        String[] header = new String[]{"OrderId", "OrderDate", "Customer", "TotalAmount", "PaymentStatus", "Status"};
+        writer.writeNext(header);
+
+        try (Stream<SalesReportRow> rows = orderRepository.streamSalesReportRows(start, end)) {
+            rows.forEach(o -> writer.writeNext(new String[]{
+                    String.valueOf(o.getOrderId()),
+                    String.valueOf(o.getOrderDate()),
+                    o.getCustomer() != null ? o.getCustomer() : "N/A",
+                    o.getTotalAmount() != null ? o.getTotalAmount().toString() : "0.00",
+                    o.getPaymentStatus() != null ? o.getPaymentStatus().name() : "",
+                    o.getStatus() != null ? o.getStatus().name() : ""
+            }));
+        }
+        writer.flush();
+        if (writer.checkError()) {
+            throw new IOException("Failed to write sales CSV");
         }
     }
 }
@@ -0,0 +1,46 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.repo.DailySalesRollupRepository;
+import com.cart.ecom_proj.repo.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the daily sales rollup on startup when it is still empty but orders exist, which is
+ * the case on the first start after the rollup was introduced. A full rebuild can be forced with
+ * {@code --rebuild-sales-rollup} or {@code app.reports.rollup.rebuild-on-startup=true}.
+ */
+@Component
+@Order(3) // After DataInitializer and the image migration
+public class SalesRollupBackfillRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupBackfillRunner.class);
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private DailySalesRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${app.reports.rollup.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean forced = rebuildOnStartup || args.containsOption("rebuild-sales-rollup");
+        if (!forced && (rollupRepository.count() > 0 || orderRepository.count() == 0)) {
+            return;
+        }
+        logger.info("Backfilling the daily sales rollup from the orders table");
+        salesRollupService.rebuildAll();
+    }
+}
@@ -0,0 +1,156 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.DailySales;
+import com.cart.ecom_proj.dto.SalesSummary;
+import com.cart.ecom_proj.dto.StatusSales;
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.OrderItem;
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+import com.cart.ecom_proj.repo.DailySalesRollupRepository;
+import com.cart.ecom_proj.repo.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains the daily sales rollup and answers sales summaries from it.
+ *
+ * {@link OrderService} takes a {@link Contribution} of an order before changing it and passes
+ * it with the new contribution to {@link #apply}, in the same transaction as the order change.
+ * The rollup therefore commits or rolls back together with the order. {@link #rebuild} recomputes
+ * days from the orders table, e.g. to backfill orders placed before the rollup existed.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    @Autowired
+    private DailySalesRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * What one order adds to the rollup: its row key and the amounts it contributes.
+     */
+    public record Contribution(LocalDate salesDate, OrderStatus status, PaymentStatus paymentStatus,
+                               BigDecimal revenue, long items) {
+
+        /**
+         * @return the order's contribution, or null for a deleted or not yet placed order
+         */
+        public static Contribution of(Order order) {
+            if (order == null || order.isDeleted() || order.getOrderDate() == null) {
+                return null;
+            }
+            long items = 0;
+            for (OrderItem item : order.getOrderItems()) {
+                items += item.getQuantity();
+            }
+            return new Contribution(order.getOrderDate().toLocalDate(), order.getStatus(), order.getPaymentStatus(),
+                    order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO, items);
+        }
+
+        private boolean sameRow(Contribution other) {
+            return salesDate.equals(other.salesDate) && status == other.status && paymentStatus == other.paymentStatus;
+        }
+    }
+
+    /**
+     * Moves an order's totals from its old rollup row to its new one. Either side may be null
+     * for an order that was created or deleted.
+     */
+    @Transactional
+    public void apply(Contribution before, Contribution after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null && after != null && before.sameRow(after)) {
+            rollupRepository.addToRollup(after.salesDate(), after.status(), after.paymentStatus(), 0,
+                    after.revenue().subtract(before.revenue()), after.items() - before.items());
+            return;
+        }
+        if (before != null) {
+            rollupRepository.addToRollup(before.salesDate(), before.status(), before.paymentStatus(), -1,
+                    before.revenue().negate(), -before.items());
+        }
+        if (after != null) {
+            rollupRepository.addToRollup(after.salesDate(), after.status(), after.paymentStatus(), 1,
+                    after.revenue(), after.items());
+        }
+    }
+
+    /**
+     * Sales totals for a date range, read from the rollup.
+     *
+     * @throws BadRequestException if the start date is after the end date
+     */
+    @Transactional(readOnly = true)
+    public SalesSummary getSummary(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("Start date must not be after end date");
+        }
+        List<DailySales> days = rollupRepository.findDailySales(startDate, endDate);
+        List<StatusSales> byStatus = rollupRepository.findStatusSales(startDate, endDate);
+        long orders = 0;
+        long items = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (DailySales day : days) {
+            orders += day.getOrderCount();
+            items += day.getItemCount();
+            revenue = revenue.add(day.getRevenue());
+        }
+        return new SalesSummary(startDate, endDate, orders, revenue, items, days, byStatus);
+    }
+
+    /**
+     * Recomputes the rollup for a date range from the orders table, one transaction per day so
+     * order writes are only held up briefly.
+     *
+     * @return number of days rebuilt
+     * @throws BadRequestException if the start date is after the end date
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("Start date must not be after end date");
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int days = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            LocalDate salesDate = day;
+            transaction.executeWithoutResult(status -> rollupRepository.rebuildDay(salesDate));
+            days++;
+        }
+        logger.info("Rebuilt daily sales rollup from {} to {} ({} days)", startDate, endDate, days);
+        return days;
+    }
+
+    /**
+     * Recomputes the rollup for every day that has orders.
+     *
+     * @return number of days rebuilt
+     */
+    public int rebuildAll() {
+        LocalDateTime first = orderRepository.findFirstOrderDate();
+        if (first == null) {
+            return 0;
+        }
+        return rebuild(first.toLocalDate(), orderRepository.findLastOrderDate().toLocalDate());
+    }
+}
@@ -0,0 +1,242 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.OrderItem;
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentMethod;
+import com.cart.ecom_proj.model.PaymentStatus;
+import com.cart.ecom_proj.model.ReservationStatus;
+import com.cart.ecom_proj.model.StockReservation;
+import com.cart.ecom_proj.repo.OrderRepository;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.repo.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the stock of orders that wait for an online payment, and gives it back when the payment
+ * does not arrive in time.
+ *
+ * The stock is taken off {@code products.stock_quantity} when the order is placed, as for any
+ * order, so available stock is read straight from the product without looking at holds. A hold
+ * only records what to give back: {@link #hold} stores it with an expiry time, {@link #confirm}
+ * keeps the stock once the order is paid, and {@link #release} marks it as given back by a
+ * cancellation. Expiry times are kept in an in-memory delay queue, so finding due holds never
+ * scans the table; the queue is reloaded from the active holds on startup. Due holds are
+ * released in batches: the order is cancelled and its stock restored in one statement.
+ *
+ * Holds are locked while they expire, and the order changes in {@link OrderService} confirm or
+ * release the hold before reading the order, so a payment and an expiry of the same order never
+ * both go through. Several nodes may expire the same hold; only the first finds it active.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.inventory.reservation-ttl:30m}")
+    private Duration reservationTtl;
+
+    @Value("${app.inventory.expiry-batch-size:200}")
+    private int expiryBatchSize;
+
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+
+    /**
+     * When the holds of an order run out.
+     */
+    record Expiry(Long orderId, long expiresAtMillis) implements Delayed {
+
+        Expiry(Long orderId, LocalDateTime expiresAt) {
+            this(orderId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Expiry) other).expiresAtMillis);
+        }
+    }
+
+    /**
+     * Whether orders paid this way stay pending until a payment confirmation arrives, and so
+     * need a hold. Cash on delivery is paid when the order is delivered.
+     */
+    public static boolean awaitsPayment(PaymentMethod paymentMethod) {
+        return paymentMethod != PaymentMethod.CASH_ON_DELIVERY;
+    }
+
+    /**
+     * Records a hold for every item of a newly placed order, whose stock has already been taken.
+     * The hold expires after the reservation TTL; it is queued for expiry once the order commits.
+     */
+    @Transactional
+    public void hold(Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(reservationTtl);
+        List<StockReservation> holds = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            holds.add(new StockReservation(null, order.getId(), item.getProduct().getId(), item.getQuantity(),
+                    ReservationStatus.ACTIVE, expiresAt, now));
+        }
+        reservationRepository.saveAll(holds);
+
+        Expiry expiry = new Expiry(order.getId(), expiresAt);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    expiries.add(expiry);
+                }
+            });
+        } else {
+            expiries.add(expiry);
+        }
+    }
+
+    /**
+     * Keeps the held stock of an order for good, e.g. because it was paid. Waits for an expiry
+     * of the order that is running, so call it before reading the order.
+     *
+     * @return whether the order had active holds
+     */
+    @Transactional
+    public boolean confirm(Long orderId) {
+        return reservationRepository.updateStatus(List.of(orderId), ReservationStatus.ACTIVE,
+                ReservationStatus.CONFIRMED) > 0;
+    }
+
+    /**
+     * Marks the holds of an order as released by a cancellation that restores the stock itself.
+     * Waits for an expiry of the order that is running, so call it before reading the order.
+     *
+     * @return whether the order had active holds
+     */
+    @Transactional
+    public boolean release(Long orderId) {
+        return reservationRepository.updateStatus(List.of(orderId), ReservationStatus.ACTIVE,
+                ReservationStatus.RELEASED) > 0;
+    }
+
+    /**
+     * Cancels the orders whose holds ran out and puts their stock back, one batch per transaction.
+     * A batch that fails goes back into the queue and is retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.expiry-interval:5000}")
+    public void releaseExpired() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Expiry> due = new ArrayList<>(expiryBatchSize);
+        while (expiries.drainTo(due, expiryBatchSize) > 0) {
+            List<Long> orderIds = due.stream().map(Expiry::orderId).distinct().toList();
+            try {
+                Integer cancelled = transactionTemplate.execute(status -> expire(orderIds));
+                if (cancelled != null && cancelled > 0) {
+                    logger.info("Cancelled {} unpaid orders and restored their stock", cancelled);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not release expired stock holds of {} orders: {}", orderIds.size(), e.getMessage());
+                expiries.addAll(due);
+                return;
+            }
+            due.clear();
+        }
+    }
+
+    /**
+     * Queues the active holds stored in the database, which the in-memory queue lost on shutdown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        List<Object[]> active = reservationRepository.findActiveExpiries();
+        for (Object[] row : active) {
+            expiries.add(new Expiry((Long) row[0], (LocalDateTime) row[1]));
+        }
+        if (!active.isEmpty()) {
+            logger.info("Queued stock holds of {} unpaid orders for expiry", active.size());
+        }
+    }
+
+    private int expire(List<Long> orderIds) {
+        List<StockReservation> holds = reservationRepository.findActiveForUpdate(orderIds);
+        if (holds.isEmpty()) {
+            // Paid or cancelled in the meantime
+            return 0;
+        }
+        Set<Long> heldOrderIds = new HashSet<>();
+        for (StockReservation hold : holds) {
+            heldOrderIds.add(hold.getOrderId());
+        }
+        reservationRepository.updateStatus(heldOrderIds, ReservationStatus.ACTIVE, ReservationStatus.EXPIRED);
+
+        Set<Long> cancelled = new HashSet<>();
+        for (Order order : orderRepository.findAllById(heldOrderIds)) {
+            // Orders moved on by an admin keep their stock
+            if (order.getStatus() != OrderStatus.PENDING || order.getPaymentStatus() == PaymentStatus.PAID) {
+                continue;
+            }
+            SalesRollupService.Contribution before = SalesRollupService.Contribution.of(order);
+            order.setStatus(OrderStatus.CANCELLED);
+            salesRollupService.apply(before, SalesRollupService.Contribution.of(order));
+            invoiceService.evict(order.getId());
+            cancelled.add(order.getId());
+        }
+
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (StockReservation hold : holds) {
+            if (cancelled.contains(hold.getOrderId())) {
+                quantities.merge(hold.getProductId(), hold.getQuantity(), Integer::sum);
+            }
+        }
+        productRepo.incrementStock(hotSkuInventory.putBack(quantities));
+        return cancelled.size();
+    }
+}
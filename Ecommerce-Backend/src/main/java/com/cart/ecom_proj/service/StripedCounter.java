@@ -0,0 +1,79 @@
+package com.cart.ecom_proj.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Non-negative quantity split over several atomic stripes, so threads taking from the same
+ * quantity mostly update different cache lines instead of contending on one value.
+ *
+ * A take is served from a single stripe with a compare-and-set. Only when no stripe holds enough
+ * on its own are the stripes pooled under a lock and spread out again, so the quantity never
+ * goes below zero.
+ */
+final class StripedCounter {
+
+    // Ints per stripe; keeps stripes on separate 64-byte cache lines
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    StripedCounter(int stripes, int initial) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+        spread(initial);
+    }
+
+    /**
+     * Takes the quantity if it is available.
+     *
+     * @return false if less than the quantity is left
+     */
+    boolean tryTake(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PADDING;
+            int value = cells.get(cell);
+            while (value >= quantity) {
+                if (cells.compareAndSet(cell, value, value - quantity)) {
+                    return true;
+                }
+                value = cells.get(cell);
+            }
+        }
+        return takePooled(quantity);
+    }
+
+    void add(int quantity) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    /**
+     * @return current quantity; only exact while no take or add is running
+     */
+    int sum() {
+        int sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private synchronized boolean takePooled(int quantity) {
+        int pooled = 0;
+        for (int i = 0; i < stripes; i++) {
+            pooled += cells.getAndSet(i * PADDING, 0);
+        }
+        boolean taken = pooled >= quantity;
+        spread(taken ? pooled - quantity : pooled);
+        return taken;
+    }
+
+    private void spread(int quantity) {
+        int share = quantity / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PADDING, i < quantity % stripes ? share + 1 : share);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.cart.ecom_proj.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for product images.
+ * Images are keyed by the SHA-256 hash of their bytes, so identical uploads are stored once
+ * and a stored image never changes once written. Entities keep only the hash as a reference.
+ * Resized {@link ImageVariant}s are stored next to the original under the same hash.
+ */
+public interface ImageStore {
+
+    Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * @param hash candidate image reference
+     * @return true if the value is a well-formed SHA-256 hash as produced by {@link #put(InputStream)}
+     */
+    static boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    /**
+     * Stores the content read from the given stream and returns its SHA-256 hash (lowercase hex).
+     * The stream is consumed but not closed.
+     *
+     * @param content image bytes to store
+     * @return hash that identifies the stored content
+     * @throws IOException if the content cannot be written
+     */
+    String put(InputStream content) throws IOException;
+
+    /**
+     * Stores the given bytes and returns their SHA-256 hash (lowercase hex).
+     *
+     * @param content image bytes to store
+     * @return hash that identifies the stored content
+     * @throws IOException if the content cannot be written
+     */
+    default String put(byte[] content) throws IOException {
+        return put(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Reads the content stored under the given hash.
+     *
+     * @param hash content hash returned by {@link #put(InputStream)}
+     * @return stored bytes, or empty if nothing is stored under the hash
+     * @throws IOException if the content exists but cannot be read
+     */
+    Optional<byte[]> get(String hash) throws IOException;
+
+    /**
+     * @param hash content hash
+     * @return true if content is stored under the hash
+     */
+    boolean exists(String hash);
+
+    /**
+     * Stores a resized rendition of the image identified by {@code hash}.
+     * Variants are always JPEG encoded.
+     *
+     * @param hash    hash of the original image
+     * @param variant sized variant being stored
+     * @param content encoded variant bytes
+     * @throws IOException if the content cannot be written
+     */
+    void putVariant(String hash, ImageVariant variant, byte[] content) throws IOException;
+
+    /**
+     * Reads a resized rendition of the image identified by {@code hash}.
+     *
+     * @param hash    hash of the original image
+     * @param variant sized variant to read
+     * @return variant bytes, or empty if the variant has not been generated (yet)
+     * @throws IOException if the variant exists but cannot be read
+     */
+    Optional<byte[]> getVariant(String hash, ImageVariant variant) throws IOException;
+}
@@ -0,0 +1,60 @@
+package com.cart.ecom_proj.storage;
+
+import com.cart.ecom_proj.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Pre-sized renditions of a product image.
+ * Each sized variant fits within a square of {@code maxDimension} pixels, keeping the aspect ratio.
+ */
+public enum ImageVariant {
+    THUMBNAIL("thumbnail", 150),
+    CARD("card", 400),
+    DETAIL("detail", 800),
+    ORIGINAL("original", 0);
+
+    private final String paramName;
+    private final int maxDimension;
+
+    ImageVariant(String paramName, int maxDimension) {
+        this.paramName = paramName;
+        this.maxDimension = maxDimension;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isResized() {
+        return this != ORIGINAL;
+    }
+
+    /**
+     * Parses the {@code size} request parameter of the image endpoints.
+     * Accepts the variant names plus {@code thumb} as a short form of {@code thumbnail}.
+     *
+     * @param value parameter value, null or blank means the original image
+     * @return matching variant
+     * @throws BadRequestException if the value is not a known size
+     */
+    public static ImageVariant fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ORIGINAL;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        if ("thumb".equals(normalized)) {
+            return THUMBNAIL;
+        }
+        for (ImageVariant variant : values()) {
+            if (variant.paramName.equals(normalized)) {
+                return variant;
+            }
+        }
+        throw new BadRequestException("Invalid image size: " + value + ". Allowed: thumbnail, card, detail, original");
+    }
+}
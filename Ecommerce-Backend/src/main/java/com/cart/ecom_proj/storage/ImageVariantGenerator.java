@@ -0,0 +1,170 @@
+package com.cart.ecom_proj.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces the resized {@link ImageVariant}s of stored images.
+ *
+ * Decoding and encoding run on a small bounded pool owned by this component so uploads never
+ * block a request thread on image processing. When the queue is full the job is dropped; the
+ * image endpoint serves the original in the meantime and requests generation again on the next
+ * miss, so variants are eventually produced. Images that cannot be decoded (e.g. WebP, which
+ * ImageIO does not read) are remembered by hash and always served as the original; stored
+ * content never changes, so retrying them cannot succeed.
+ */
+@Component
+public class ImageVariantGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantGenerator.class);
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+
+    // Hashes with a generation job queued or running, so repeated misses don't pile up duplicate jobs
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // Hashes whose original cannot be decoded, so misses of their variants don't re-read it every time
+    private final Set<String> undecodable = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantGenerator(ImageStore imageStore,
+                                 @Value("${storage.images.resize-threads:2}") int threads,
+                                 @Value("${storage.images.resize-queue-capacity:100}") int queueCapacity) {
+        this.imageStore = imageStore;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-resize-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Schedules generation of all sized variants of the image stored under {@code hash}.
+     * Returns immediately; the work happens on the image processing pool.
+     *
+     * @param hash hash of the original image in the image store
+     */
+    public void generateAsync(String hash) {
+        if (hash == null || undecodable.contains(hash) || !pending.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash);
+                } catch (Exception e) {
+                    logger.warn("Failed to generate variants for image {}: {}", hash, e.getMessage());
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            logger.warn("Image processing queue is full, variants for {} will be generated on a later request", hash);
+        }
+    }
+
+    /**
+     * Generates and stores all sized variants of the image stored under {@code hash}
+     * on the calling thread.
+     *
+     * @param hash hash of the original image in the image store
+     * @throws IOException if the original cannot be read or a variant cannot be written
+     */
+    public void generate(String hash) throws IOException {
+        if (undecodable.contains(hash)) {
+            return;
+        }
+        Optional<byte[]> original = imageStore.get(hash);
+        if (original.isEmpty()) {
+            return;
+        }
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(original.get()));
+        if (source == null) {
+            undecodable.add(hash);
+            logger.warn("Image {} cannot be decoded, it will be served in its original size", hash);
+            return;
+        }
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (variant.isResized()) {
+                imageStore.putVariant(hash, variant, encodeJpeg(resize(source, variant.getMaxDimension())));
+            }
+        }
+        logger.debug("Generated variants for image {}", hash);
+    }
+
+    /**
+     * Scales the image to fit within a {@code maxDimension} square, never upscaling.
+     * The result is always opaque RGB (transparent areas become white) so it can be encoded as JPEG.
+     */
+    static BufferedImage resize(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
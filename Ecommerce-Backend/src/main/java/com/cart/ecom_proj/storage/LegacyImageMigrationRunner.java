@@ -0,0 +1,143 @@
+package com.cart.ecom_proj.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One-off migration that moves image BLOBs left in the legacy {@code products.image_data}
+ * column into the {@link ImageStore} and replaces them with a hash reference.
+ *
+ * Runs when the application is started with {@code --migrate-images} or with
+ * {@code storage.images.migrate-legacy-blobs=true}. Rows are processed in id order in small
+ * batches, each BLOB is streamed straight from the result set into the store, and the column
+ * is cleared as each batch completes, so the migration can be interrupted and resumed safely.
+ *
+ * MySQL Connector/J only streams rows (and their BLOBs) when the fetch size is
+ * {@code Integer.MIN_VALUE}; with any other value it reads the whole batch into memory first.
+ * While the rows are read nothing but the file-based image store is touched, so no other statement
+ * runs on the connection until the result set is closed.
+ */
+@Component
+@Order(2) // After DataInitializer
+public class LegacyImageMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyImageMigrationRunner.class);
+
+    private static final String LEGACY_COLUMN = "image_data";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @Value("${storage.images.migrate-legacy-blobs:false}")
+    private boolean migrateOnStartup;
+
+    @Value("${storage.images.migration-batch-size:50}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!migrateOnStartup && !args.containsOption("migrate-images")) {
+            return;
+        }
+        if (!legacyColumnExists()) {
+            logger.info("No legacy products.{} column found - nothing to migrate", LEGACY_COLUMN);
+            return;
+        }
+        int migrated = migrate();
+        logger.info("Image migration completed: {} product images moved to the image store. " +
+                "The products.{} column can now be dropped.", migrated, LEGACY_COLUMN);
+    }
+
+    /**
+     * Moves all remaining legacy BLOBs into the image store.
+     *
+     * @return number of products migrated
+     */
+    public int migrate() {
+        int total = 0;
+        int lastId = 0;
+        while (true) {
+            List<Object[]> batch = readBatch(lastId);
+            if (batch.isEmpty()) {
+                return total;
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE products SET image_hash = ?, " + LEGACY_COLUMN + " = NULL WHERE id = ?", batch);
+            total += batch.size();
+            lastId = (Integer) batch.get(batch.size() - 1)[1];
+            logger.info("Migrated {} product images (last id {})", total, lastId);
+        }
+    }
+
+    private List<Object[]> readBatch(int afterId) {
+        String sql = "SELECT id, " + LEGACY_COLUMN + " FROM products " +
+                "WHERE " + LEGACY_COLUMN + " IS NOT NULL AND id > ? ORDER BY id";
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setInt(1, afterId);
+            ps.setMaxRows(batchSize);
+            ps.setFetchSize(isMySql(con) ? Integer.MIN_VALUE : batchSize);
+            return ps;
+        }, rs -> {
+            List<Object[]> updates = new ArrayList<>();
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                try (InputStream blob = rs.getBinaryStream(2)) {
+                    String hash = imageStore.put(blob);
+                    imageVariantGenerator.generateAsync(hash);
+                    updates.add(new Object[]{hash, id});
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to migrate image of product " + id, e);
+                }
+            }
+            return updates;
+        });
+    }
+
+    private static boolean isMySql(Connection con) throws SQLException {
+        return "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+    }
+
+    private boolean legacyColumnExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection con) -> {
+            DatabaseMetaData metaData = con.getMetaData();
+            for (String table : new String[]{"products", "PRODUCTS"}) {
+                try (ResultSet columns = metaData.getColumns(con.getCatalog(), null, table, null)) {
+                    while (columns.next()) {
+                        if (LEGACY_COLUMN.equals(columns.getString("COLUMN_NAME").toLowerCase(Locale.ROOT))) {
+                            return true;
+                        }
+                    }
+                } catch (SQLException e) {
+                    logger.warn("Could not inspect {} table metadata: {}", table, e.getMessage());
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -0,0 +1,132 @@
+package com.cart.ecom_proj.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * {@link ImageStore} backed by the local filesystem.
+ * Files are laid out as {@code <root>/ab/cd/<hash>} to keep directory sizes small, with resized
+ * variants stored alongside as {@code <hash>.<variant>.jpg}.
+ * Writes go to a temporary file first and are moved into place atomically, so readers
+ * never observe a partially written image.
+ */
+@Component
+public class LocalFileSystemImageStore implements ImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileSystemImageStore.class);
+
+    private final Path root;
+
+    public LocalFileSystemImageStore(@Value("${storage.images.root:data/images}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String put(InputStream content) throws IOException {
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                content.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(hash);
+            if (Files.exists(target)) {
+                // Same content is already stored - nothing to do
+                return hash;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException e) {
+                // A concurrent upload of the same content won the race
+            }
+            logger.debug("Stored image {} ({} bytes)", hash, Files.size(target));
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> get(String hash) throws IOException {
+        try {
+            return Optional.of(Files.readAllBytes(resolve(hash)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(resolve(hash));
+    }
+
+    @Override
+    public void putVariant(String hash, ImageVariant variant, byte[] content) throws IOException {
+        Path target = resolveVariant(hash, variant);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> getVariant(String hash, ImageVariant variant) throws IOException {
+        try {
+            return Optional.of(Files.readAllBytes(resolveVariant(hash, variant)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path resolve(String hash) {
+        // Only accept well-formed hashes so a reference can never escape the storage root
+        if (!ImageStore.isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid image hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path resolveVariant(String hash, ImageVariant variant) {
+        Path original = resolve(hash);
+        return original.resolveSibling(hash + "." + variant.getParamName() + ".jpg");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.cart.ecom_proj.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * Image bytes read from the {@link ImageStore} together with the content type to serve them with.
+ * {@code variant} is the rendition actually returned, which is {@link ImageVariant#ORIGINAL}
+ * when a requested resized variant was not available yet.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredImage {
+    private final byte[] data;
+    private final String contentType;
+    private final String hash;
+    private final ImageVariant variant;
+
+    /**
+     * @return strong ETag of this image, see {@link #etagFor(String, ImageVariant)}
+     */
+    public String getETag() {
+        return etagFor(hash, variant);
+    }
+
+    /**
+     * Builds the strong ETag for an image rendition. Stored content never changes for a given
+     * hash, so the ETag can be computed from the reference alone without reading the image.
+     *
+     * @param hash    content hash of the original image
+     * @param variant rendition being served
+     * @return quoted ETag value
+     */
+    public static String etagFor(String hash, ImageVariant variant) {
+        return "\"" + hash + (variant.isResized() ? "-" + variant.getParamName() : "") + "\"";
+    }
+
+    /**
+     * Detects the content type of an image from its leading bytes, for images served by hash
+     * where no product metadata is available.
+     *
+     * @param data image bytes
+     * @return detected content type, or {@code application/octet-stream} if unknown
+     */
+    public static String detectContentType(byte[] data) {
+        if (data.length >= 3 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8 && (data[2] & 0xFF) == 0xFF) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (data.length >= 4 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G') {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (data.length >= 12 && data[0] == 'R' && data[1] == 'I' && data[2] == 'F' && data[3] == 'F'
+                && data[8] == 'W' && data[9] == 'E' && data[10] == 'B' && data[11] == 'P') {
+            return "image/webp";
+        }
+        if (data.length >= 4 && data[0] == 'G' && data[1] == 'I' && data[2] == 'F' && data[3] == '8') {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+}
@@ -0,0 +1,60 @@
+package com.cart.ecom_proj.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+
+    private CacheManager nodeACaches;
+    private CacheManager nodeBCaches;
+    private CacheInvalidationBus nodeA;
+    private final List<Integer> nodeBNotifications = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Two nodes sharing one transport
+        InvalidationTransport transport = new InMemoryInvalidationTransport();
+        nodeACaches = new ConcurrentMapCacheManager("product", "users");
+        nodeBCaches = new ConcurrentMapCacheManager("product", "users");
+        nodeA = new CacheInvalidationBus(nodeACaches, transport);
+        CacheInvalidationBus nodeB = new CacheInvalidationBus(nodeBCaches, transport);
+        nodeB.subscribe("product", Integer::valueOf, nodeBNotifications::add);
+
+        for (CacheManager caches : List.of(nodeACaches, nodeBCaches)) {
+            caches.getCache("product").put(1, "product 1");
+            caches.getCache("product").put(2, "product 2");
+            caches.getCache("users").put("alice", "alice");
+        }
+    }
+
+    @Test
+    void publish_ShouldEvictKeyOnOtherNodesOnly() {
+        // Act
+        nodeA.publish("product", 1);
+
+        // Assert
+        assertNull(nodeBCaches.getCache("product").get(1));
+        assertNotNull(nodeBCaches.getCache("product").get(2));
+        assertNotNull(nodeACaches.getCache("product").get(1));
+        assertEquals(List.of(1), nodeBNotifications);
+    }
+
+    @Test
+    void publish_WithoutKey_ShouldClearCacheWithoutSubscription() {
+        // Act
+        nodeA.publish("users", null);
+
+        // Assert
+        assertNull(nodeBCaches.getCache("users").get("alice"));
+        assertNotNull(nodeACaches.getCache("users").get("alice"));
+        assertNotNull(nodeBCaches.getCache("product").get(1));
+        assertTrue(nodeBNotifications.isEmpty());
+    }
+}
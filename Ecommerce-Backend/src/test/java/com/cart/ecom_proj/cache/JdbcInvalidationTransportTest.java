@@ -0,0 +1,69 @@
+package com.cart.ecom_proj.cache;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.model.CacheInvalidation;
+import com.cart.ecom_proj.repo.CacheInvalidationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+class JdbcInvalidationTransportTest {
+
+    @Autowired
+    private CacheInvalidationRepository repository;
+
+    private JdbcInvalidationTransport transport;
+    private final List<InvalidationMessage> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Written before this node started, so it must not be delivered
+        repository.save(new CacheInvalidation(null, "node-a", "product", "1", LocalDateTime.now().minusHours(1)));
+
+        transport = new JdbcInvalidationTransport();
+        ReflectionTestUtils.setField(transport, "repository", repository);
+        ReflectionTestUtils.setField(transport, "retention", Duration.ofMinutes(10));
+        transport.init();
+        transport.subscribe(received::add);
+    }
+
+    @Test
+    void poll_ShouldDeliverNewMessagesInOrderExactlyOnce() {
+        // Arrange
+        transport.publish(new InvalidationMessage("node-a", "product", "2"));
+        transport.publish(new InvalidationMessage("node-b", "users", null));
+
+        // Act
+        transport.poll();
+        transport.poll();
+
+        // Assert
+        assertEquals(List.of(new InvalidationMessage("node-a", "product", "2"),
+                new InvalidationMessage("node-b", "users", null)), received);
+    }
+
+    @Test
+    void prune_ShouldDeleteRowsOlderThanRetention() {
+        // Arrange
+        transport.publish(new InvalidationMessage("node-a", "product", "2"));
+
+        // Act
+        transport.prune();
+
+        // Assert
+        assertEquals(1, repository.count());
+        assertEquals("2", repository.findAll().get(0).getCacheKey());
+    }
+}
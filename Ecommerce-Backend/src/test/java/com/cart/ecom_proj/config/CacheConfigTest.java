@@ -0,0 +1,84 @@
+package com.cart.ecom_proj.config;
+
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        AppCacheProperties.Spec spec = new AppCacheProperties.Spec();
+        spec.setMaxWeight(DataSize.ofKilobytes(4));
+        spec.setExpireAfterWrite(Duration.ofMinutes(5));
+        AppCacheProperties properties = new AppCacheProperties();
+        properties.getSpecs().put("product", spec);
+
+        cacheManager = new CacheConfig().cacheManager(properties);
+    }
+
+    @Test
+    void cacheManager_ShouldOnlyProvideConfiguredCaches() {
+        // Act & Assert
+        assertEquals(List.of("product"), List.copyOf(cacheManager.getCacheNames()));
+        assertNull(cacheManager.getCache("unknown"));
+    }
+
+    @Test
+    void cache_ShouldEvictByEstimatedSizeAndRecordStats() {
+        // Arrange
+        Cache<Object, Object> cache = nativeCache("product");
+
+        // Act
+        for (int id = 1; id <= 50; id++) {
+            cacheManager.getCache("product").put(id, summary(id, "x".repeat(200)));
+        }
+        cacheManager.getCache("product").get(50);
+        cacheManager.getCache("product").get(-1);
+        cache.cleanUp();
+
+        // Assert
+        Policy.Eviction<Object, Object> eviction = cache.policy().eviction().orElseThrow();
+        assertTrue(eviction.weightedSize().orElseThrow() <= 4096);
+        assertTrue(cache.estimatedSize() < 50);
+        assertTrue(cache.stats().evictionCount() > 0);
+        assertEquals(1, cache.stats().missCount());
+        assertTrue(cache.policy().expireAfterWrite().isPresent());
+    }
+
+    @Test
+    void weigher_ShouldGrowWithEntryContent() {
+        // Arrange
+        EntrySizeWeigher weigher = new EntrySizeWeigher();
+
+        // Act
+        int small = weigher.weigh(1, summary(1, "a"));
+        int large = weigher.weigh(1, summary(1, "a".repeat(1000)));
+
+        // Assert
+        assertTrue(small > EntrySizeWeigher.ENTRY_OVERHEAD);
+        assertTrue(large >= small + 999);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+
+    private ProductSummary summary(int id, String name) {
+        return new ProductSummary(id, name, "Brand", "Category", new BigDecimal("9.99"), true, 1, null);
+    }
+}
@@ -0,0 +1,122 @@
+package com.cart.ecom_proj.controller;
+
+import com.cart.ecom_proj.dto.CreateOrderRequest;
+import com.cart.ecom_proj.dto.OrderItemRequest;
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.OrderItem;
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentMethod;
+import com.cart.ecom_proj.model.PaymentStatus;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.model.User;
+import com.cart.ecom_proj.service.IdempotencyService;
+import com.cart.ecom_proj.service.OrderService;
+import com.cart.ecom_proj.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Uses the real idempotency service with the application's ObjectMapper; its table is mocked,
+ * so retries are replayed from the in-memory cache.
+ */
+@WebMvcTest(OrderController.class)
+@Import(IdempotencyService.class)
+class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private OrderService orderService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @WithMockUser(username = "customer")
+    void createOrder_WithIdempotencyKey_ShouldReplayTheFirstOrder() throws Exception {
+        // Arrange
+        User user = new User();
+        user.setId(100L);
+        user.setUsername("customer");
+        when(userService.getUserByUsername("customer")).thenReturn(user);
+        when(orderService.createOrder(any(CreateOrderRequest.class), eq(user))).thenReturn(createTestOrder(user));
+        CreateOrderRequest request = new CreateOrderRequest(List.of(new OrderItemRequest(1, 2)), "1 Main St", null,
+                "0712345678", null, PaymentMethod.UPI);
+
+        // Act
+        String first = placeOrder(request)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        String replayed = placeOrder(request)
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.orderDate").value("2026-01-15T10:30:00"))
+                .andExpect(jsonPath("$.items[0].productName").value("Mug"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertEquals(objectMapper.readTree(first), objectMapper.readTree(replayed));
+        verify(orderService, times(1)).createOrder(any(CreateOrderRequest.class), eq(user));
+    }
+
+    private ResultActions placeOrder(CreateOrderRequest request) throws Exception {
+        return mockMvc.perform(post("/api/orders")
+                .with(csrf())
+                .header(IdempotencyService.HEADER, "checkout-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private Order createTestOrder(User user) {
+        Product product = new Product();
+        product.setId(1);
+        product.setName("Mug");
+
+        Order order = new Order();
+        order.setId(1L);
+        order.setUser(user);
+        order.setOrderDate(LocalDateTime.of(2026, 1, 15, 10, 30));
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentStatus(PaymentStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        order.setShippingAddress("1 Main St");
+        order.setPhoneNumber("0712345678");
+
+        OrderItem item = new OrderItem();
+        item.setId(1L);
+        item.setProduct(product);
+        item.setQuantity(2);
+        item.setPriceAtOrder(new BigDecimal("5.00"));
+        item.setSubtotal(new BigDecimal("10.00"));
+        order.setOrderItems(List.of(item));
+        return order;
+    }
+}
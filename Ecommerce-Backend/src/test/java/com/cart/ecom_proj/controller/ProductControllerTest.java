@@ -1,7 +1,10 @@
 package com.cart.ecom_proj.controller;
 
+import com.cart.ecom_proj.dto.ProductSummary;
 import com.cart.ecom_proj.model.Product;
 import com.cart.ecom_proj.service.ProductService;
+import com.cart.ecom_proj.storage.ImageVariant;
+import com.cart.ecom_proj.storage.StoredImage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,7 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -51,10 +55,15 @@ class ProductControllerTest {
         return product;
     }
 
+    private ProductSummary createTestSummary() {
+        return new ProductSummary(1, "Test Product", "Test Brand", "Electronics",
+                new BigDecimal("99.99"), true, 10, null);
+    }
+
     @Test
     void getAllProducts_ShouldReturnProducts() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(createTestProduct());
+        List<ProductSummary> products = Arrays.asList(createTestSummary());
         when(productService.getAllProducts()).thenReturn(products);
 
         // Act & Assert
@@ -66,7 +75,7 @@ class ProductControllerTest {
     @Test
     void getAllProducts_WithPagination_ShouldReturnPaginatedProducts() throws Exception {
         // Arrange
-        Page<Product> productPage = new PageImpl<>(Arrays.asList(createTestProduct()), PageRequest.of(0, 12), 1);
+        Page<ProductSummary> productPage = new PageImpl<>(Arrays.asList(createTestSummary()), PageRequest.of(0, 12), 1);
         when(productService.getAllProductsPaginated(0, 12, "id", "asc")).thenReturn(productPage);
 
         // Act & Assert
@@ -123,7 +132,7 @@ class ProductControllerTest {
     @Test
     void searchProducts_ShouldReturnMatchingProducts() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(createTestProduct());
+        List<ProductSummary> products = Arrays.asList(createTestSummary());
         when(productService.searchProducts("test")).thenReturn(products);
 
         // Act & Assert
@@ -132,5 +141,35 @@ class ProductControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("Test Product"));
     }
-}
 
+    @Test
+    @WithMockUser
+    void getImageByProductId_WithMatchingETag_ShouldReturnNotModifiedWithoutLoadingImage() throws Exception {
+        // Arrange
+        Product product = createTestProduct();
+        product.setImageHash("c".repeat(64));
+        when(productService.getProductById(1)).thenReturn(product);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/product/1/image")
+                        .param("size", "thumbnail")
+                        .header("If-None-Match", "\"" + "c".repeat(64) + "-thumbnail\""))
+                .andExpect(status().isNotModified());
+        verify(productService, never()).getProductImage(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void getImageByHash_ShouldBeCacheableForever() throws Exception {
+        // Arrange
+        String hash = "d".repeat(64);
+        when(productService.getImageByHash(hash, ImageVariant.CARD))
+                .thenReturn(Optional.of(new StoredImage(new byte[]{1}, "image/jpeg", hash, ImageVariant.CARD)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/images/" + hash).param("size", "card"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + hash + "-card\""))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.dto.SalesReportRow;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(JpaConfig.class)
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        for (long userId = 1; userId <= 3; userId++) {
+            jdbcTemplate.update("INSERT INTO users (id, username, email, password, created_at, deleted, enabled) "
+                    + "VALUES (?, ?, ?, 'password', CURRENT_TIMESTAMP, false, true)",
+                    userId + 100, "customer" + userId, "customer" + userId + "@example.com");
+        }
+    }
+
+    @Test
+    void streamSalesReportRows_ShouldReturnOrdersInRangeWithCustomersInOneQuery() {
+        // Arrange
+        insertOrder(1, 101, LocalDateTime.of(2024, 3, 2, 10, 0), false);
+        insertOrder(2, 102, LocalDateTime.of(2024, 3, 1, 9, 0), false);
+        insertOrder(3, 103, LocalDateTime.of(2024, 3, 3, 8, 0), true);
+        insertOrder(4, 101, LocalDateTime.of(2024, 4, 1, 8, 0), false);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<SalesReportRow> rows;
+        try (Stream<SalesReportRow> stream = orderRepository.streamSalesReportRows(
+                LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 31, 23, 59))) {
+            rows = stream.toList();
+        }
+
+        // Assert
+        assertEquals(List.of(2L, 1L), rows.stream().map(SalesReportRow::getOrderId).toList());
+        assertEquals(List.of("customer2", "customer1"), rows.stream().map(SalesReportRow::getCustomer).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void streamSalesReportRows_ShouldKeepOrdersOfSoftDeletedCustomers() {
+        // Arrange
+        jdbcTemplate.update("UPDATE users SET deleted = true WHERE id = 102");
+        insertOrder(1, 101, LocalDateTime.of(2024, 3, 1, 10, 0), false);
+        insertOrder(2, 102, LocalDateTime.of(2024, 3, 2, 9, 0), false);
+
+        // Act
+        List<SalesReportRow> rows;
+        try (Stream<SalesReportRow> stream = orderRepository.streamSalesReportRows(
+                LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 31, 23, 59))) {
+            rows = stream.toList();
+        }
+
+        // Assert
+        assertEquals(List.of(1L, 2L), rows.stream().map(SalesReportRow::getOrderId).toList());
+        assertEquals("customer1", rows.get(0).getCustomer());
+        assertNull(rows.get(1).getCustomer());
+    }
+
+    private void insertOrder(long id, long userId, LocalDateTime orderDate, boolean deleted) {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, "
+                + "phone_number, payment_method, payment_status, created_at, deleted) "
+                + "VALUES (?, ?, ?, 'DELIVERED', 25.00, '1 Main St', '0712345678', 'UPI', 'PAID', ?, ?)",
+                id, userId, orderDate, orderDate, deleted);
+    }
+}
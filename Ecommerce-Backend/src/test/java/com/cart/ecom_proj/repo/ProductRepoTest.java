@@ -0,0 +1,150 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.dto.AdvancedSearchRequest;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.ProductUpdateItem;
+import com.cart.ecom_proj.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+class ProductRepoTest {
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // Several products share a price so the id tie-breaker is exercised
+        String[] prices = {"10.00", "20.00", "20.00", "20.00", "30.00", "5.00", "20.00"};
+        for (int i = 0; i < prices.length; i++) {
+            productRepo.save(product("Product " + i, i % 2 == 0 ? "Laptops" : "Accessories", prices[i]));
+        }
+    }
+
+    @Test
+    void findAfter_ShouldWalkAllProductsInPriceOrderWithoutGapsOrDuplicates() {
+        // Arrange
+        AdvancedSearchRequest criteria = new AdvancedSearchRequest();
+        criteria.setSortBy("price");
+        criteria.setSortDir("desc");
+        List<Product> expected = productRepo.findAll().stream()
+                .sorted((a, b) -> a.getPrice().compareTo(b.getPrice()) != 0
+                        ? b.getPrice().compareTo(a.getPrice()) : Integer.compare(b.getId(), a.getId()))
+                .toList();
+
+        // Act
+        List<ProductSummary> walked = new ArrayList<>();
+        List<ProductSummary> page = productRepo.findAfter(criteria, null, null, 2);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            ProductSummary last = page.get(page.size() - 1);
+            page = productRepo.findAfter(criteria, last.getPrice(), last.getId(), 2);
+        }
+
+        // Assert
+        assertEquals(expected.stream().map(Product::getId).toList(), walked.stream().map(ProductSummary::getId).toList());
+    }
+
+    @Test
+    void findAfter_ShouldApplyFilters() {
+        // Arrange
+        AdvancedSearchRequest criteria = new AdvancedSearchRequest();
+        criteria.setCategory("laptops");
+        criteria.setMaxPrice(new BigDecimal("20.00"));
+
+        // Act
+        List<ProductSummary> result = productRepo.findAfter(criteria, null, null, 10);
+
+        // Assert
+        assertEquals(List.of("Product 0", "Product 2", "Product 6"), result.stream().map(ProductSummary::getName).toList());
+    }
+
+    @Test
+    void findAllSummaries_ShouldSkipDeletedProducts() {
+        // Arrange
+        Product deleted = productRepo.findAll().get(0);
+        deleted.delete("admin");
+        productRepo.save(deleted);
+
+        // Act
+        List<ProductSummary> result = productRepo.findAllSummaries();
+
+        // Assert
+        assertEquals(6, result.size());
+        assertTrue(result.stream().noneMatch(summary -> summary.getId() == deleted.getId()));
+    }
+
+    @Test
+    void streamAllSummaries_ShouldReturnProductsInIdOrder() {
+        // Arrange
+        List<Integer> expected = productRepo.findAll().stream().map(Product::getId).sorted().toList();
+
+        // Act
+        List<Integer> streamed;
+        try (Stream<ProductSummary> products = productRepo.streamAllSummaries()) {
+            streamed = products.map(ProductSummary::getId).toList();
+        }
+
+        // Assert
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    void bulkUpdate_ShouldOnlyChangeGivenFieldsOfExistingProducts() {
+        // Arrange
+        List<Product> products = productRepo.findAll();
+        Product first = products.get(0);
+        Product second = products.get(1);
+        List<ProductUpdateItem> updates = List.of(
+                new ProductUpdateItem(first.getId(), new BigDecimal("12.34"), null, null),
+                new ProductUpdateItem(second.getId(), null, 0, false),
+                new ProductUpdateItem(99999, new BigDecimal("1.00"), null, null));
+
+        // Act
+        List<Integer> updated = productRepo.bulkUpdate(updates, "admin");
+        entityManager.clear();
+
+        // Assert
+        assertEquals(List.of(first.getId(), second.getId()), updated);
+        Product reloadedFirst = productRepo.findById(first.getId()).orElseThrow();
+        assertEquals(new BigDecimal("12.34"), reloadedFirst.getPrice());
+        assertEquals(5, reloadedFirst.getStockQuantity());
+        assertTrue(reloadedFirst.isProductAvailable());
+        assertEquals("admin", reloadedFirst.getUpdatedBy());
+        Product reloadedSecond = productRepo.findById(second.getId()).orElseThrow();
+        assertEquals(second.getPrice(), reloadedSecond.getPrice());
+        assertEquals(0, reloadedSecond.getStockQuantity());
+        assertFalse(reloadedSecond.isProductAvailable());
+    }
+
+    private Product product(String name, String category, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Description of " + name);
+        product.setBrand("Brand");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setReleaseDate(new Date());
+        product.setProductAvailable(true);
+        product.setStockQuantity(5);
+        return product;
+    }
+}
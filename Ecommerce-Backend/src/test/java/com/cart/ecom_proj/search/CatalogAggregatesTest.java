@@ -0,0 +1,74 @@
+package com.cart.ecom_proj.search;
+
+import com.cart.ecom_proj.dto.SearchFiltersResponse;
+import com.cart.ecom_proj.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogAggregatesTest {
+
+    private CatalogAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        aggregates = new CatalogAggregates();
+        // Start from an empty catalog instead of loading from the database
+        ReflectionTestUtils.setField(aggregates, "ready", true);
+        aggregates.index(product(1, "Laptops", "Dell", "899.00"));
+        aggregates.index(product(2, "Accessories", "Logitech", "19.99"));
+        aggregates.index(product(3, "laptops", "dell", "1299.00"));
+    }
+
+    @Test
+    void getFilters_ShouldListDistinctValuesAndPriceRange() {
+        // Act
+        SearchFiltersResponse filters = aggregates.getFilters();
+
+        // Assert
+        assertEquals(List.of("Accessories", "Laptops"), filters.getCategories());
+        assertEquals(List.of("Dell", "Logitech"), filters.getBrands());
+        assertEquals(new BigDecimal("19.99"), filters.getMinPrice());
+        assertEquals(new BigDecimal("1299.00"), filters.getMaxPrice());
+    }
+
+    @Test
+    void remove_ShouldDropValuesNoLongerUsedAndNarrowPriceRange() {
+        // Act
+        aggregates.remove(2);
+        aggregates.remove(3);
+
+        // Assert
+        SearchFiltersResponse filters = aggregates.getFilters();
+        assertEquals(List.of("Laptops"), filters.getCategories());
+        assertEquals(List.of("Dell"), filters.getBrands());
+        assertEquals(new BigDecimal("899.00"), filters.getMinPrice());
+        assertEquals(new BigDecimal("899.00"), filters.getMaxPrice());
+    }
+
+    @Test
+    void index_ShouldReplacePreviousValuesOfUpdatedProduct() {
+        // Act
+        aggregates.index(product(2, "Peripherals", "Logitech", "24.99"));
+
+        // Assert
+        SearchFiltersResponse filters = aggregates.getFilters();
+        assertEquals(List.of("Laptops", "Peripherals"), filters.getCategories());
+        assertEquals(new BigDecimal("24.99"), filters.getMinPrice());
+    }
+
+    private Product product(int id, String category, String brand, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
@@ -0,0 +1,92 @@
+package com.cart.ecom_proj.search;
+
+import com.cart.ecom_proj.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(product(1, "Gaming Laptop", "Dell", "Laptops", "49.99", true,
+                "Fast laptop with a dedicated graphics card"));
+        index.index(product(2, "Wireless Mouse", "Logitech", "Accessories", "19.99", true,
+                "Ergonomic mouse that works with any laptop"));
+        index.index(product(3, "Office Chair", "Ikea", "Furniture", "129.00", false,
+                "Comfortable chair for long working days"));
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        List<Integer> result = index.search("laptop", ProductSearchIndex.Filter.NONE, ProductSearchIndex.SORT_RELEVANCE, false);
+
+        // Assert
+        assertEquals(List.of(1, 2), result);
+    }
+
+    @Test
+    void search_ShouldRequireAllTermsAndMatchPrefixes() {
+        // Act
+        List<Integer> result = index.search("ergo LAP", ProductSearchIndex.Filter.NONE, ProductSearchIndex.SORT_RELEVANCE, false);
+
+        // Assert
+        assertEquals(List.of(2), result);
+    }
+
+    @Test
+    void search_ShouldApplyFilterAndSort() {
+        // Arrange
+        ProductSearchIndex.Filter available = new ProductSearchIndex.Filter(null, null, null, new BigDecimal("100"), true);
+
+        // Act
+        List<Integer> result = index.search("with", available, "price", false);
+
+        // Assert
+        assertEquals(List.of(2, 1), result);
+    }
+
+    @Test
+    void index_ShouldReplacePreviousEntryAndRemoveDeletedProducts() {
+        // Arrange
+        index.index(product(1, "Gaming Desktop", "Dell", "Desktops", "899.00", true, "Tower with a graphics card"));
+        Product chair = product(3, "Office Chair", "Ikea", "Furniture", "129.00", false, "Comfortable chair");
+        chair.delete("admin");
+
+        // Act
+        index.index(chair);
+
+        // Assert
+        assertEquals(List.of(2), index.search("laptop", ProductSearchIndex.Filter.NONE, ProductSearchIndex.SORT_RELEVANCE, false));
+        assertEquals(List.of(1), index.search("desktop", ProductSearchIndex.Filter.NONE, ProductSearchIndex.SORT_RELEVANCE, false));
+        assertTrue(index.search("chair", ProductSearchIndex.Filter.NONE, ProductSearchIndex.SORT_RELEVANCE, false).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void search_WithoutWords_ShouldReturnNothing() {
+        // Act & Assert
+        assertTrue(index.search(" -- ", ProductSearchIndex.Filter.NONE, ProductSearchIndex.SORT_RELEVANCE, false).isEmpty());
+    }
+
+    private Product product(int id, String name, String brand, String category, String price,
+                            boolean available, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setProductAvailable(available);
+        product.setDescription(description);
+        return product;
+    }
+}
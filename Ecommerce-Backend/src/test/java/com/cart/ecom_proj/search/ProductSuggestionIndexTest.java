@@ -0,0 +1,87 @@
+package com.cart.ecom_proj.search;
+
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestionIndexTest {
+
+    private ProductSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSuggestionIndex();
+        index.index(product(1, "Laptop Stand", "Lenovo", "Accessories"));
+        index.index(product(2, "Gaming Laptop", "Lenovo", "Laptops"));
+        index.index(product(3, "Wireless Mouse", "Logitech", "Accessories"));
+    }
+
+    @Test
+    void suggest_ShouldMatchAnyWordAndRankByPopularity() {
+        // Act
+        List<ProductSuggestion> result = index.suggest("LA", 10);
+
+        // Assert
+        assertEquals(List.of("Gaming Laptop", "Laptop Stand", "Laptops"), texts(result));
+        assertEquals(ProductSuggestion.Type.PRODUCT, result.get(0).getType());
+        assertEquals(2, result.get(0).getProductId());
+    }
+
+    @Test
+    void suggest_ShouldWeighBrandsBySumOfProducts() {
+        // Act
+        List<ProductSuggestion> result = index.suggest("l", 1);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(new ProductSuggestion("Lenovo", ProductSuggestion.Type.BRAND, null), result.get(0));
+    }
+
+    @Test
+    void index_ShouldReplaceSuggestionsOfUpdatedProduct() {
+        // Act
+        index.index(product(3, "Wired Mouse", "Logitech", "Peripherals"));
+
+        // Assert
+        assertEquals(List.of("Wired Mouse"), texts(index.suggest("wire", 10)));
+        assertEquals(List.of("Peripherals"), texts(index.suggest("per", 10)));
+        // Accessories is still used by product 1
+        assertEquals(List.of("Accessories"), texts(index.suggest("acc", 10)));
+    }
+
+    @Test
+    void remove_ShouldDropSuggestionsNoLongerUsed() {
+        // Act
+        index.remove(3);
+
+        // Assert
+        assertTrue(index.suggest("logi", 10).isEmpty());
+        assertTrue(index.suggest("mouse", 10).isEmpty());
+        assertEquals(List.of("Laptop Stand"), texts(index.suggest("stand", 10)));
+    }
+
+    @Test
+    void suggest_WithUnknownOrBlankPrefix_ShouldReturnNothing() {
+        // Act & Assert
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    private List<String> texts(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getText).toList();
+    }
+
+    private Product product(int id, String name, String brand, String category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,160 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.dto.CreateOrderRequest;
+import com.cart.ecom_proj.dto.OrderItemRequest;
+import com.cart.ecom_proj.model.PaymentMethod;
+import com.cart.ecom_proj.model.User;
+import com.cart.ecom_proj.repo.OrderRepository;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Flash-sale checkout throughput: many buyers ordering the same product, once with the stock in
+ * the products table and once with the product in hot SKU mode. Run with {@code ./gradlew benchmark};
+ * the load can be changed with {@code -Dbenchmark.checkouts=...} and {@code -Dbenchmark.buyers=...}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/benchmark/hot-sku;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotSkuCheckoutBenchmarkTest {
+
+    private static final int CHECKOUTS = Integer.getInteger("benchmark.checkouts", 20_000);
+    private static final int BUYERS = Integer.getInteger("benchmark.buyers", 32);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    private Path logDir;
+
+    private User user;
+    private int productId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM hot_sku_checkpoint");
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, created_at, deleted, enabled) "
+                + "VALUES (100, 'customer', 'customer@example.com', 'password', CURRENT_TIMESTAMP, false, true)");
+        user = userRepository.findById(100L).orElseThrow();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(ProductImportService.INSERT_SQL, "Console", "Console", "Brand", "Gaming",
+                new BigDecimal("499.00"), now, true, 0, now, now, "admin", "admin");
+        productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Integer.class);
+    }
+
+    @Test
+    void createOrder_ShouldSellOutFasterFromHotSkuCounters() throws Exception {
+        // Database row lock per checkout
+        jdbcTemplate.update("UPDATE products SET stock_quantity = ? WHERE id = ?", CHECKOUTS, productId);
+        HotSkuInventory disabled = new HotSkuInventory(jdbcTemplate, transactionManager, List.of(), logDir, 1);
+        double lockedPerSecond = sellOut(disabled, "Row-locked");
+
+        // Same sale with the product's stock in memory
+        jdbcTemplate.update("UPDATE products SET stock_quantity = ? WHERE id = ?", CHECKOUTS, productId);
+        HotSkuInventory hot = new HotSkuInventory(jdbcTemplate, transactionManager, List.of(productId), logDir, 16);
+        hot.start();
+        double hotPerSecond = sellOut(hot, "Hot SKU");
+        hot.stop();
+
+        System.out.printf("Hot SKU checkout is %.1fx the row-locked throughput%n", hotPerSecond / lockedPerSecond);
+    }
+
+    private double sellOut(HotSkuInventory hotSkuInventory, String label) throws Exception {
+        OrderService orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "productRepo", productRepo);
+        ReflectionTestUtils.setField(orderService, "salesRollupService", mock(SalesRollupService.class));
+        ReflectionTestUtils.setField(orderService, "invoiceService", mock(InvoiceService.class));
+        ReflectionTestUtils.setField(orderService, "stockReservationService", mock(StockReservationService.class));
+        ReflectionTestUtils.setField(orderService, "hotSkuInventory", hotSkuInventory);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CreateOrderRequest request = new CreateOrderRequest(List.of(new OrderItemRequest(productId, 1)),
+                "1 Main St", null, "0712345678", null, PaymentMethod.CASH_ON_DELIVERY);
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> buyers = new ArrayList<>();
+        for (int buyer = 0; buyer < BUYERS; buyer++) {
+            int checkouts = CHECKOUTS / BUYERS + (buyer < CHECKOUTS % BUYERS ? 1 : 0);
+            buyers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < checkouts; i++) {
+                    transactionTemplate.executeWithoutResult(status -> orderService.createOrder(request, user));
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get(10, TimeUnit.MINUTES);
+        }
+        long elapsedMillis = Math.max((System.nanoTime() - started) / 1_000_000, 1);
+        executor.shutdown();
+        hotSkuInventory.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?",
+                Integer.class, productId));
+        double perSecond = CHECKOUTS * 1000.0 / elapsedMillis;
+        System.out.printf("%s: %d checkouts by %d buyers in %d ms (%.0f orders/s)%n",
+                label, CHECKOUTS, BUYERS, elapsedMillis, perSecond);
+        return perSecond;
+    }
+}
@@ -0,0 +1,189 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Flushes and recovery commit to the database, so the test data is committed and removed after
+ * each test.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotSkuInventoryTest {
+
+    private static final int STOCK = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path logDir;
+
+    private int productId;
+    private HotSkuInventory inventory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(ProductImportService.INSERT_SQL, "Console", "Console", "Brand", "Gaming",
+                new BigDecimal("499.00"), now, true, STOCK, now, now, "admin", "admin");
+        productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Integer.class);
+        inventory = newInventory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventory.stop();
+        jdbcTemplate.update("DELETE FROM hot_sku_checkpoint");
+        jdbcTemplate.update("DELETE FROM products");
+    }
+
+    @Test
+    void take_ShouldNeverOversellAndFlushTheNetChange() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int thread = 0; thread < 16; thread++) {
+            results.add(executor.submit(() -> {
+                int taken = 0;
+                for (int i = 0; i < 200; i++) {
+                    if (inventory.take(productId, 1)) {
+                        taken++;
+                    }
+                }
+                return taken;
+            }));
+        }
+
+        // Act
+        int taken = 0;
+        for (Future<Integer> result : results) {
+            taken += result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        inventory.flush();
+
+        // Assert
+        assertEquals(STOCK, taken);
+        assertEquals(0, inventory.getAvailable(productId));
+        assertEquals(0, stockOf(productId));
+    }
+
+    @Test
+    void take_ShouldGiveStockBackWhenTheOrderRollsBack() {
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(inventory.take(productId, 5));
+            status.setRollbackOnly();
+        });
+        inventory.flush();
+
+        // Assert
+        assertEquals(STOCK, inventory.getAvailable(productId));
+        assertEquals(STOCK, stockOf(productId));
+    }
+
+    @Test
+    void start_ShouldReplayChangesThatWereNotFlushedBeforeACrash() throws Exception {
+        // Arrange: one flushed change, then changes only in the log
+        assertTrue(inventory.take(productId, 10));
+        inventory.flush();
+        assertTrue(inventory.take(productId, 30));
+        assertEquals(Map.of(), inventory.putBack(Map.of(productId, 5)));
+        assertEquals(STOCK - 10, stockOf(productId));
+
+        // Act: start again over the same log without stopping, as after a crash
+        inventory = newInventory();
+
+        // Assert
+        assertEquals(STOCK - 35, stockOf(productId));
+        assertEquals(STOCK - 35, inventory.getAvailable(productId));
+        inventory.stop();
+        assertEquals(STOCK - 35, stockOf(productId));
+    }
+
+    @Test
+    void take_ShouldNotLogUntilTheOrderCommits() throws Exception {
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(inventory.take(productId, 5));
+            // Assert: a crash now must not replay the take
+            assertEquals(List.of(), logLines());
+        });
+
+        // Assert
+        assertEquals(1, logLines().size());
+        assertEquals(STOCK - 5, inventory.getAvailable(productId));
+    }
+
+    @Test
+    void start_ShouldReplayChangesOfProductsThatAreNoLongerHot() throws Exception {
+        // Arrange: a change only in the log
+        assertTrue(inventory.take(productId, 30));
+
+        // Act: start again after a crash with the product removed from the hot list
+        HotSkuInventory restarted = new HotSkuInventory(jdbcTemplate, transactionManager, List.of(), logDir, 4);
+        restarted.start();
+
+        // Assert
+        assertEquals(STOCK - 30, stockOf(productId));
+        assertFalse(restarted.isHot(productId));
+        assertEquals(List.of(), logLines());
+    }
+
+    private List<String> logLines() {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(logDir)) {
+            for (Path file : files.sorted().toList()) {
+                lines.addAll(Files.readAllLines(file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    private HotSkuInventory newInventory() throws Exception {
+        HotSkuInventory hotSkuInventory = new HotSkuInventory(jdbcTemplate, transactionManager, List.of(productId),
+                logDir, 4);
+        hotSkuInventory.start();
+        return hotSkuInventory;
+    }
+
+    private int stockOf(int productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,181 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keys are claimed outside a transaction, so the records are committed and removed after each test.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final TypeReference<Map<String, Integer>> RESPONSE_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM idempotency_record");
+    }
+
+    @Test
+    void execute_ShouldRunConcurrentDuplicatesOnce() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<Map<String, Integer>>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute("orders.create", "customer", "key-1", Map.of("productId", 7),
+                        RESPONSE_TYPE, this::slowCreate);
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int replayed = 0;
+        for (Future<ResponseEntity<Map<String, Integer>>> result : results) {
+            ResponseEntity<Map<String, Integer>> response = result.get(30, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            assertEquals(Map.of("id", 1), response.getBody());
+            if (response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) {
+                replayed++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, runs.get());
+        assertEquals(7, replayed);
+    }
+
+    @Test
+    void execute_ShouldReplayStoredResponseOnAnotherNode() {
+        // Arrange
+        idempotencyService.execute("orders.create", "customer", "key-1", Map.of("productId", 7), RESPONSE_TYPE,
+                this::slowCreate);
+
+        // Act: a node that has not cached the response
+        ResponseEntity<Map<String, Integer>> response = newService().execute("orders.create", "customer", "key-1",
+                Map.of("productId", 7), RESPONSE_TYPE, this::slowCreate);
+
+        // Assert
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(Map.of("id", 1), response.getBody());
+        assertEquals("true", response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ShouldRefuseKeyReusedForAnotherRequest() {
+        // Arrange
+        idempotencyService.execute("orders.create", "customer", "key-1", Map.of("productId", 7), RESPONSE_TYPE,
+                this::slowCreate);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> idempotencyService.execute("orders.create", "customer",
+                "key-1", Map.of("productId", 8), RESPONSE_TYPE, this::slowCreate));
+        // Keys of other users do not collide
+        idempotencyService.execute("orders.create", "other", "key-1", Map.of("productId", 8), RESPONSE_TYPE,
+                this::slowCreate);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseKeyWhenRequestFails() {
+        // Arrange
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("orders.create", "customer",
+                "key-1", Map.of("productId", 7), RESPONSE_TYPE, () -> {
+                    throw new IllegalStateException("Out of stock");
+                }));
+
+        // Act
+        ResponseEntity<Map<String, Integer>> response = idempotencyService.execute("orders.create", "customer",
+                "key-1", Map.of("productId", 7), RESPONSE_TYPE, this::slowCreate);
+
+        // Assert
+        assertEquals(1, runs.get());
+        assertFalse(response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ShouldStoreResponseInGivenFormAndRebuildItOnReplay() {
+        // Arrange: keep only the ID, look the secret up again
+        TypeReference<Map<String, String>> type = new TypeReference<>() {};
+        IdempotencyService.StoredForm<Map<String, String>> withoutSecret = new IdempotencyService.StoredForm<>() {
+            @Override
+            public Map<String, String> toStored(Map<String, String> response) {
+                return Map.of("id", response.get("id"));
+            }
+
+            @Override
+            public Map<String, String> fromStored(Map<String, String> stored) {
+                return Map.of("id", stored.get("id"), "secret", "secret-of-" + stored.get("id"));
+            }
+        };
+        ResponseEntity<Map<String, String>> first = idempotencyService.execute("payments.create-intent", "customer",
+                "key-1", 1L, type, withoutSecret,
+                () -> ResponseEntity.ok(Map.of("id", "pi_1", "secret", "secret-of-pi_1")));
+
+        // Act: a node that has not cached the response
+        ResponseEntity<Map<String, String>> replayed = newService().execute("payments.create-intent", "customer",
+                "key-1", 1L, type, withoutSecret, () -> fail("Must not run again"));
+
+        // Assert
+        assertEquals(first.getBody(), replayed.getBody());
+        String stored = jdbcTemplate.queryForObject("SELECT response_body FROM idempotency_record", String.class);
+        assertFalse(stored.contains("secret"));
+    }
+
+    private ResponseEntity<Map<String, Integer>> slowCreate() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", runs.incrementAndGet()));
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(jdbcTemplate, new ObjectMapper(), Duration.ofHours(1), 100,
+                Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,164 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.exception.ResourceNotFoundException;
+import com.cart.ecom_proj.repo.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+class InvoiceServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    private Path cacheDir;
+
+    private ReportService reportService;
+    private InvoiceService invoiceService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reportService = spy(new ReportService());
+        invoiceService = new InvoiceService(reportService, orderRepository, transactionManager, cacheDir,
+                Duration.ofDays(30), false, 2);
+
+        Timestamp created = Timestamp.valueOf(LocalDateTime.of(2024, 5, 10, 9, 0));
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, created_at, deleted, enabled) "
+                + "VALUES (100, 'customer', 'customer@example.com', 'password', CURRENT_TIMESTAMP, false, true)");
+        jdbcTemplate.update(ProductImportService.INSERT_SQL, "Mug", "Mug", "Brand", "Kitchen", new BigDecimal("5.00"),
+                created, true, 100, created, created, "admin", "admin");
+        Integer productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Integer.class);
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, "
+                + "phone_number, payment_method, payment_status, created_at, deleted) "
+                + "VALUES (1, 100, ?, 'DELIVERED', 10.00, '1 Main St', '0712345678', 'UPI', 'PAID', ?, false)",
+                created, created);
+        jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, quantity, price_at_order, subtotal) "
+                + "VALUES (1, ?, 2, 5.00, 10.00)", productId);
+    }
+
+    @Test
+    void getInvoice_ShouldRenderOnceAndServeLaterDownloadsFromDisk() throws Exception {
+        // Act
+        InvoiceService.InvoiceFile first = invoiceService.getInvoice(1L);
+        InvoiceService.InvoiceFile second = invoiceService.getInvoice(1L);
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals("\"1-20240510090000000000-v1\"", first.etag());
+        assertTrue(new String(Files.readAllBytes(first.file()), StandardCharsets.ISO_8859_1).startsWith("%PDF-"));
+        verify(reportService, times(1)).writeOrderInvoicePDF(any(), any());
+    }
+
+    @Test
+    void getInvoice_ShouldRenderAgainWhenOrderChanges() throws Exception {
+        // Arrange
+        InvoiceService.InvoiceFile original = invoiceService.getInvoice(1L);
+        jdbcTemplate.update("UPDATE orders SET updated_at = ? WHERE id = 1",
+                Timestamp.valueOf(LocalDateTime.of(2024, 5, 12, 15, 30)));
+        entityManager.clear();
+
+        // Act
+        InvoiceService.InvoiceFile updated = invoiceService.getInvoice(1L);
+
+        // Assert
+        assertNotEquals(original.etag(), updated.etag());
+        assertFalse(Files.exists(original.file()));
+        assertTrue(Files.exists(updated.file()));
+        verify(reportService, times(2)).writeOrderInvoicePDF(any(), any());
+
+        invoiceService.evict(1L);
+        assertFalse(Files.exists(updated.file()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceService.shutdown();
+        // Only needed for tests that commit, the others are rolled back anyway
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void writeInvoicesZip_ShouldAddRenderedInvoicesAndListFailures() throws Exception {
+        // Arrange: export workers use their own transactions, so the data has to be committed
+        Timestamp created = Timestamp.valueOf(LocalDateTime.of(2024, 5, 11, 9, 0));
+        for (long id = 2; id <= 4; id++) {
+            jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, "
+                    + "phone_number, payment_method, payment_status, created_at, deleted) "
+                    + "VALUES (?, 100, ?, 'PENDING', 0.00, '1 Main St', '0712345678', 'UPI', 'PENDING', ?, false)",
+                    id, created, created);
+        }
+        doThrow(new IOException("Broken order")).when(reportService)
+                .writeOrderInvoicePDF(argThat(order -> order.getId() == 3L), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        int written = invoiceService.writeInvoicesZip(LocalDate.of(2024, 5, 10), LocalDate.of(2024, 5, 11), out);
+
+        // Assert
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        assertEquals(3, written);
+        assertEquals(Set.of("invoice-1.pdf", "invoice-2.pdf", "invoice-4.pdf", "errors.txt"), entries.keySet());
+        assertTrue(new String(entries.get("invoice-4.pdf"), StandardCharsets.ISO_8859_1).startsWith("%PDF-"));
+        assertEquals("Order 3: Broken order", new String(entries.get("errors.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getInvoice_ShouldRejectUnknownOrder() {
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> invoiceService.getInvoice(99L));
+        verifyNoInteractions(reportService);
+    }
+}
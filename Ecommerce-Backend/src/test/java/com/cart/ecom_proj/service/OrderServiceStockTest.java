@@ -0,0 +1,214 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.dto.CreateOrderRequest;
+import com.cart.ecom_proj.dto.OrderItemRequest;
+import com.cart.ecom_proj.exception.InsufficientStockException;
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.OrderItem;
+import com.cart.ecom_proj.model.PaymentMethod;
+import com.cart.ecom_proj.model.User;
+import com.cart.ecom_proj.repo.OrderRepository;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs orders against a real database, committing each one, since overselling only shows up
+ * with concurrent transactions.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceStockTest {
+
+    private static final int STOCK = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private OrderService orderService;
+    private TransactionTemplate transactionTemplate;
+    private User user;
+    private int firstProductId;
+    private int secondProductId;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "productRepo", productRepo);
+        ReflectionTestUtils.setField(orderService, "salesRollupService", mock(SalesRollupService.class));
+        ReflectionTestUtils.setField(orderService, "invoiceService", mock(InvoiceService.class));
+        ReflectionTestUtils.setField(orderService, "hotSkuInventory",
+                new HotSkuInventory(jdbcTemplate, transactionManager, List.of(), Path.of("unused"), 1));
+        ReflectionTestUtils.setField(orderService, "stockReservationService", mock(StockReservationService.class));
+        // The service is not a proxy here, so each call gets its transaction from the template
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, created_at, deleted, enabled) "
+                + "VALUES (100, 'customer', 'customer@example.com', 'password', CURRENT_TIMESTAMP, false, true)");
+        user = userRepository.findById(100L).orElseThrow();
+        firstProductId = insertProduct("Mug");
+        secondProductId = insertProduct("Plate");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void createOrder_ShouldNeverOversellUnderConcurrentCheckouts() throws Exception {
+        // Arrange: every order takes one of each product, listed in either order
+        int orders = 400;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            List<OrderItemRequest> items = i % 2 == 0
+                    ? List.of(new OrderItemRequest(firstProductId, 1), new OrderItemRequest(secondProductId, 1))
+                    : List.of(new OrderItemRequest(secondProductId, 1), new OrderItemRequest(firstProductId, 1));
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> orderService.createOrder(request(items), user));
+                    return true;
+                } catch (InsufficientStockException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int placed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(60, TimeUnit.SECONDS)) {
+                placed++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(STOCK, placed);
+        assertEquals(STOCK, orderRepository.count());
+        assertEquals(0, stockOf(firstProductId));
+        assertEquals(0, stockOf(secondProductId));
+    }
+
+    @Test
+    void createOrder_ShouldRejectDuplicateLinesThatTogetherExceedStock() {
+        // Arrange: each line fits on its own, both together do not
+        CreateOrderRequest request = request(List.of(
+                new OrderItemRequest(firstProductId, 30), new OrderItemRequest(firstProductId, 30)));
+
+        // Act & Assert
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> orderService.createOrder(request, user)));
+        assertEquals("Insufficient stock for product: Mug. Available: 50", e.getMessage());
+        assertEquals(STOCK, stockOf(firstProductId));
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void createOrder_ShouldMergeDuplicateLinesAndLoadProductsInOneQuery() {
+        // Arrange
+        CreateOrderRequest request = request(List.of(new OrderItemRequest(firstProductId, 2),
+                new OrderItemRequest(secondProductId, 1), new OrderItemRequest(firstProductId, 3)));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        Order order = transactionTemplate.execute(status -> orderService.createOrder(request, user));
+
+        // Assert
+        assertEquals(List.of(firstProductId, secondProductId),
+                order.getOrderItems().stream().map(item -> item.getProduct().getId()).toList());
+        assertEquals(List.of(5, 1), order.getOrderItems().stream().map(OrderItem::getQuantity).toList());
+        assertEquals(new BigDecimal("30.00"), order.getTotalAmount());
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals(STOCK - 5, stockOf(firstProductId));
+        assertEquals(STOCK - 1, stockOf(secondProductId));
+    }
+
+    @Test
+    void cancelOrder_ShouldRestoreStock() {
+        // Arrange
+        Order order = transactionTemplate.execute(status -> orderService.createOrder(request(List.of(
+                new OrderItemRequest(firstProductId, 5), new OrderItemRequest(secondProductId, 2))), user));
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> orderService.cancelOrder(order.getId(), user.getId()));
+
+        // Assert
+        assertEquals(STOCK, stockOf(firstProductId));
+        assertEquals(STOCK, stockOf(secondProductId));
+    }
+
+    private int insertProduct(String name) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(ProductImportService.INSERT_SQL, name, name, "Brand", "Kitchen", new BigDecimal("5.00"),
+                now, true, STOCK, now, now, "admin", "admin");
+        return jdbcTemplate.queryForObject("SELECT id FROM products WHERE name = ?", Integer.class, name);
+    }
+
+    private int stockOf(int productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private static CreateOrderRequest request(List<OrderItemRequest> items) {
+        return new CreateOrderRequest(items, "1 Main St", null, "0712345678", null, PaymentMethod.UPI);
+    }
+}
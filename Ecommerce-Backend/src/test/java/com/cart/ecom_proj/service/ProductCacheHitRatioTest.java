@@ -0,0 +1,178 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.cache.CacheInvalidationBus;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.search.CatalogAggregates;
+import com.cart.ecom_proj.search.ProductSearchIndex;
+import com.cart.ecom_proj.search.ProductSuggestionIndex;
+import com.cart.ecom_proj.storage.ImageStore;
+import com.cart.ecom_proj.storage.ImageVariantGenerator;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs a mixed read/write workload through the caching proxy of {@link ProductService} and
+ * checks that product writes only touch the affected cache entries.
+ */
+@SpringJUnitConfig
+class ProductCacheHitRatioTest {
+
+    private static final int PRODUCTS = 50;
+    private static final int OPERATIONS = 5000;
+
+    @Configuration
+    @EnableCaching
+    @Import(ProductService.class)
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager("product", "products");
+            cacheManager.setCaffeine(Caffeine.newBuilder().recordStats());
+            return cacheManager;
+        }
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ProductRepo productRepo;
+
+    @MockBean
+    private ImageStore imageStore;
+
+    @MockBean
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @MockBean
+    private ProductSearchIndex searchIndex;
+
+    @MockBean
+    private ProductSuggestionIndex suggestionIndex;
+
+    @MockBean
+    private CatalogAggregates catalogAggregates;
+
+    @MockBean
+    private CacheInvalidationBus invalidationBus;
+
+    // Stands in for the products table
+    private final Map<Integer, Product> table = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = product("Product " + i, "10.00");
+            product.setId(nextId.getAndIncrement());
+            table.put(product.getId(), product);
+        }
+        when(productRepo.findById(anyInt())).thenAnswer(inv -> Optional.ofNullable(table.get(inv.<Integer>getArgument(0))));
+        when(productRepo.existsById(anyInt())).thenAnswer(inv -> table.containsKey(inv.<Integer>getArgument(0)));
+        when(productRepo.findAllSummaries()).thenAnswer(inv -> summaries());
+        when(productRepo.save(any(Product.class))).thenAnswer(inv -> {
+            Product product = inv.getArgument(0);
+            if (product.getId() == 0) {
+                product.setId(nextId.getAndIncrement());
+            }
+            table.put(product.getId(), product);
+            return product;
+        });
+        doAnswer(inv -> table.remove(inv.<Integer>getArgument(0))).when(productRepo).deleteById(anyInt());
+    }
+
+    @Test
+    void mixedWorkload_ShouldKeepCachesWarmAcrossProductWrites() throws Exception {
+        // Arrange - 80% product views, 15% catalog listings, 5% admin edits
+        Random random = new Random(42);
+        int productReads = 0;
+        int listReads = 0;
+
+        // Act
+        for (int i = 0; i < OPERATIONS; i++) {
+            int id = 1 + random.nextInt(PRODUCTS);
+            int roll = random.nextInt(100);
+            if (roll < 80) {
+                productService.getProductById(id);
+                productReads++;
+            } else if (roll < 95) {
+                productService.getAllProducts();
+                listReads++;
+            } else {
+                productService.updateProduct(id, product("Product " + id + " v" + i, random.nextInt(100) + ".00"), null);
+            }
+        }
+        Product added = productService.addProduct(product("New product", "5.00"), null);
+        productService.deleteProduct(1);
+
+        // Assert
+        CacheStats productStats = stats("product");
+        CacheStats listStats = stats("products");
+        assertEquals(productReads, productStats.requestCount());
+        // Patching the list reads it too, so there are more requests than listings
+        assertTrue(listStats.requestCount() >= listReads);
+        // Only the first view of each product misses; edits refresh the entry instead of evicting
+        assertTrue(productStats.missCount() <= PRODUCTS);
+        assertTrue(productStats.hitRate() > 0.95, "product hit rate " + productStats.hitRate());
+        assertEquals(1, listStats.missCount());
+        verify(productRepo, times(1)).findAllSummaries();
+
+        // The patched list and product entries match the table
+        assertEquals(summaries(), productService.getAllProducts());
+        assertSame(added, productService.getProductById(added.getId()));
+        assertEquals(table.get(2).getName(), productService.getProductById(2).getName());
+    }
+
+    private CacheStats stats(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache().stats();
+    }
+
+    private List<ProductSummary> summaries() {
+        return table.values().stream()
+                .sorted((a, b) -> Integer.compare(a.getId(), b.getId()))
+                .map(ProductSummary::of)
+                .toList();
+    }
+
+    private Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setBrand("Brand");
+        product.setCategory("Category");
+        product.setPrice(new BigDecimal(price));
+        product.setProductAvailable(true);
+        product.setStockQuantity(10);
+        return product;
+    }
+}
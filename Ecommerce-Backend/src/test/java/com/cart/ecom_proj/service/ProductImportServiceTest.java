@@ -0,0 +1,137 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.dto.ImportJobStatus;
+import com.cart.ecom_proj.dto.ImportRowError;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+class ProductImportServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @TempDir
+    private Path tempDir;
+
+    private ProductImportService importService;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        importService = new ProductImportService();
+        ReflectionTestUtils.setField(importService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(importService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(importService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(importService, "productService", productService);
+        ReflectionTestUtils.setField(importService, "batchSize", 100);
+    }
+
+    @Test
+    void importFile_ShouldInsertValidRowsAndReportInvalidOnesByLine() throws IOException {
+        // Arrange - same columns as the product CSV export
+        Path csv = write("""
+                "Id","Name","Brand","Category","Price","StockQuantity","Available"
+                "7","Desk Lamp","Ikea","Lighting","24.50","12","true"
+                "","","Ikea","Lighting","10.00","1","true"
+                "","Bulb","Philips","Lighting","abc","1","true"
+                "","Floor Lamp","Ikea","Lighting","-5","1","true"
+                "","Lamp Shade","Ikea","Lighting","9.99","0",""
+                """);
+
+        // Act
+        ImportJobStatus status = importService.importFile(csv, "admin");
+
+        // Assert
+        assertEquals(ImportJobStatus.State.COMPLETED, status.getState());
+        assertEquals(5, status.getRowsRead());
+        assertEquals(2, status.getRowsImported());
+        assertEquals(3, status.getRowsFailed());
+        assertEquals(List.of(3L, 4L, 5L), status.getErrors().stream().map(ImportRowError::getLine).toList());
+        assertEquals("Invalid Price 'abc'", status.getErrors().get(1).getMessage());
+
+        List<Product> products = productRepo.findAll();
+        assertEquals(List.of("Desk Lamp", "Lamp Shade"), products.stream().map(Product::getName).sorted().toList());
+        Product shade = products.stream().filter(p -> p.getName().equals("Lamp Shade")).findFirst().orElseThrow();
+        assertFalse(shade.isProductAvailable());
+        assertEquals(new BigDecimal("9.99"), shade.getPrice());
+        assertEquals("admin", shade.getCreatedBy());
+        assertNotNull(shade.getReleaseDate());
+        verify(productService, times(1)).reloadCatalog();
+    }
+
+    @Test
+    void importFile_ShouldInsertLargeFilesInBatches() throws IOException {
+        // Arrange
+        int rows = 5_000;
+        Path csv = tempDir.resolve("large.csv");
+        try (Writer writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("Name,Brand,Category,Price,StockQuantity,Description,ReleaseDate\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write("Product " + i + ",Brand " + (i % 50) + ",Category " + (i % 10) + "," + (i % 500 + 1)
+                        + ".99," + (i % 20) + ",Description of product " + i + ",2024-01-15\n");
+            }
+        }
+
+        // Act
+        ImportJobStatus status = importService.importFile(csv, "admin");
+
+        // Assert
+        assertEquals(ImportJobStatus.State.COMPLETED, status.getState());
+        assertEquals(rows, status.getRowsImported());
+        assertEquals(0, status.getRowsFailed());
+        assertEquals(rows, productRepo.count());
+    }
+
+    @Test
+    void importFile_WithoutRequiredColumns_ShouldFail() throws IOException {
+        // Arrange
+        Path csv = write("Name,Brand\nLamp,Ikea\n");
+
+        // Act
+        ImportJobStatus status = importService.importFile(csv, "admin");
+
+        // Assert
+        assertEquals(ImportJobStatus.State.FAILED, status.getState());
+        assertEquals("Missing required columns: category, price", status.getMessage());
+        assertEquals(0, productRepo.count());
+        verify(productService, never()).reloadCatalog();
+    }
+
+    private Path write(String content) throws IOException {
+        Path csv = tempDir.resolve("products.csv");
+        Files.writeString(csv, content, StandardCharsets.UTF_8);
+        return csv;
+    }
+}
@@ -1,14 +1,30 @@
 package com.cart.ecom_proj.service;
 
+import com.cart.ecom_proj.cache.CacheInvalidationBus;
+import com.cart.ecom_proj.dto.AdvancedSearchRequest;
+import com.cart.ecom_proj.dto.BulkProductUpdateResponse;
+import com.cart.ecom_proj.dto.CursorPage;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.dto.ProductUpdateItem;
+import com.cart.ecom_proj.exception.BadRequestException;
 import com.cart.ecom_proj.exception.ResourceNotFoundException;
 import com.cart.ecom_proj.model.Product;
 import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.search.CatalogAggregates;
+import com.cart.ecom_proj.search.ProductSearchIndex;
+import com.cart.ecom_proj.search.ProductSuggestionIndex;
+import com.cart.ecom_proj.storage.ImageStore;
+import com.cart.ecom_proj.storage.ImageVariant;
+import com.cart.ecom_proj.storage.ImageVariantGenerator;
+import com.cart.ecom_proj.storage.StoredImage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -18,10 +34,15 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,10 +54,32 @@ class ProductServiceTest {
     @Mock
     private FileValidationService fileValidationService;
 
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggestionIndex suggestionIndex;
+
+    @Mock
+    private CatalogAggregates catalogAggregates;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
     @InjectMocks
     private ProductService productService;
 
     private Product testProduct;
+    private ProductSummary testSummary;
 
     @BeforeEach
     void setUp() {
@@ -50,39 +93,42 @@ class ProductServiceTest {
         testProduct.setReleaseDate(new Date());
         testProduct.setProductAvailable(true);
         testProduct.setStockQuantity(10);
+        testSummary = new ProductSummary(1, "Test Product", "Test Brand", "Electronics",
+                new BigDecimal("99.99"), true, 10, null);
     }
 
     @Test
     void getAllProducts_ShouldReturnListOfProducts() {
         // Arrange
-        List<Product> products = Arrays.asList(testProduct);
-        when(productRepo.findAll()).thenReturn(products);
+        List<ProductSummary> products = Arrays.asList(testSummary);
+        when(productRepo.findAllSummaries()).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getAllProducts();
+        List<ProductSummary> result = productService.getAllProducts();
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testProduct.getName(), result.get(0).getName());
-        verify(productRepo, times(1)).findAll();
+        assertEquals(testSummary.getName(), result.get(0).getName());
+        verify(productRepo, times(1)).findAllSummaries();
+        verify(productRepo, never()).findAll();
     }
 
     @Test
     void getAllProductsPaginated_ShouldReturnPaginatedProducts() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Product> productPage = new PageImpl<>(Arrays.asList(testProduct), pageable, 1);
-        when(productRepo.findAll(any(Pageable.class))).thenReturn(productPage);
+        Page<ProductSummary> productPage = new PageImpl<>(Arrays.asList(testSummary), pageable, 1);
+        when(productRepo.findAllSummaries(any(Pageable.class))).thenReturn(productPage);
 
         // Act
-        Page<Product> result = productService.getAllProductsPaginated(0, 10, "id", "asc");
+        Page<ProductSummary> result = productService.getAllProductsPaginated(0, 10, "id", "asc");
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(1, result.getContent().size());
-        verify(productRepo, times(1)).findAll(any(Pageable.class));
+        verify(productRepo, times(1)).findAllSummaries(any(Pageable.class));
     }
 
     @Test
@@ -143,16 +189,220 @@ class ProductServiceTest {
     void searchProducts_ShouldReturnMatchingProducts() {
         // Arrange
         String keyword = "test";
-        List<Product> products = Arrays.asList(testProduct);
+        List<ProductSummary> products = Arrays.asList(testSummary);
         when(productRepo.searchProducts(keyword)).thenReturn(products);
 
         // Act
-        List<Product> result = productService.searchProducts(keyword);
+        List<ProductSummary> result = productService.searchProducts(keyword);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(productRepo, times(1)).searchProducts(keyword);
     }
-}
 
+    @Test
+    void searchProductsPaginated_WhenIndexReady_ShouldLoadOnlyRequestedPageInRankOrder() {
+        // Arrange
+        ProductSummary second = new ProductSummary();
+        second.setId(2);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("test", ProductSearchIndex.Filter.NONE, ProductSearchIndex.SORT_RELEVANCE, false))
+                .thenReturn(List.of(2, 1, 3));
+        when(productRepo.findSummariesByIdIn(List.of(2, 1))).thenReturn(List.of(testSummary, second));
+
+        // Act
+        Page<ProductSummary> result = productService.searchProductsPaginated("test", 0, 2, null, null);
+
+        // Assert
+        assertEquals(3, result.getTotalElements());
+        assertEquals(List.of(second, testSummary), result.getContent());
+        verify(productRepo, never()).searchProductsPaginated(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void getProductsByCursor_ShouldFetchOneExtraRowAndSeekFromReturnedCursor() {
+        // Arrange
+        ProductSummary second = new ProductSummary();
+        second.setId(2);
+        second.setPrice(new BigDecimal("149.00"));
+        when(productRepo.findAfter(any(AdvancedSearchRequest.class), isNull(), isNull(), eq(2)))
+                .thenReturn(List.of(testSummary, second));
+        when(productRepo.findAfter(any(AdvancedSearchRequest.class), eq(new BigDecimal("99.99")), eq(1), eq(2)))
+                .thenReturn(List.of(second));
+
+        // Act
+        CursorPage<ProductSummary> first = productService.getProductsByCursor(null, 1, "price", "asc");
+        CursorPage<ProductSummary> next = productService.getProductsByCursor(first.getNextCursor(), 1, "price", "asc");
+
+        // Assert
+        assertEquals(List.of(testSummary), first.getContent());
+        assertTrue(first.isHasNext());
+        assertEquals(List.of(second), next.getContent());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+        verify(productRepo, never()).count();
+    }
+
+    @Test
+    void getProductsByCursor_WithCursorForOtherSort_ShouldThrowException() {
+        // Arrange
+        when(productRepo.findAfter(any(AdvancedSearchRequest.class), isNull(), isNull(), eq(2)))
+                .thenReturn(List.of(testSummary, testSummary));
+        String cursor = productService.getProductsByCursor("", 1, "price", "asc").getNextCursor();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productService.getProductsByCursor(cursor, 1, "name", "asc"));
+    }
+
+    @Test
+    void bulkUpdateProducts_ShouldReindexOnlyUpdatedProductsAndReportMissingOnes() {
+        // Arrange
+        List<ProductUpdateItem> updates = List.of(
+                new ProductUpdateItem(1, new BigDecimal("89.99"), null, null),
+                new ProductUpdateItem(42, null, 5, null));
+        when(productRepo.bulkUpdate(updates, "admin")).thenReturn(List.of(1));
+        when(productRepo.findAllById(List.of(1))).thenReturn(List.of(testProduct));
+
+        // Act
+        BulkProductUpdateResponse result = productService.bulkUpdateProducts(updates, "admin");
+
+        // Assert
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(42), result.getNotFound());
+        verify(searchIndex, times(1)).index(testProduct);
+        verify(invalidationBus, times(1)).publish("product", 1);
+        verify(invalidationBus, never()).publish("product", 42);
+    }
+
+    @Test
+    void bulkUpdateProducts_WithDuplicateProduct_ShouldThrowException() {
+        // Arrange
+        List<ProductUpdateItem> updates = List.of(
+                new ProductUpdateItem(1, new BigDecimal("89.99"), null, null),
+                new ProductUpdateItem(1, null, 5, null));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productService.bulkUpdateProducts(updates, "admin"));
+        verify(productRepo, never()).bulkUpdate(anyList(), anyString());
+    }
+
+    @Test
+    void addProduct_ShouldIndexSavedProduct() throws Exception {
+        // Arrange
+        when(productRepo.save(testProduct)).thenReturn(testProduct);
+
+        // Act
+        productService.addProduct(testProduct, null);
+
+        // Assert
+        verify(searchIndex, times(1)).index(testProduct);
+        verify(suggestionIndex, times(1)).index(testProduct);
+        verify(catalogAggregates, times(1)).index(testProduct);
+    }
+
+    @Test
+    void getProductImage_WhenVariantExists_ShouldReturnJpegVariant() throws Exception {
+        // Arrange
+        testProduct.setImageHash("a".repeat(64));
+        testProduct.setImageType("image/png");
+        when(imageStore.getVariant(testProduct.getImageHash(), ImageVariant.THUMBNAIL))
+                .thenReturn(Optional.of(new byte[]{1}));
+
+        // Act
+        Optional<StoredImage> result = productService.getProductImage(testProduct, ImageVariant.THUMBNAIL);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("image/jpeg", result.get().getContentType());
+        verify(imageStore, never()).get(anyString());
+        verify(imageVariantGenerator, never()).generateAsync(anyString());
+    }
+
+    @Test
+    void getProductImage_WhenVariantMissing_ShouldFallBackToOriginalAndScheduleGeneration() throws Exception {
+        // Arrange
+        String hash = "b".repeat(64);
+        testProduct.setImageHash(hash);
+        testProduct.setImageType("image/png");
+        when(imageStore.getVariant(hash, ImageVariant.CARD)).thenReturn(Optional.empty());
+        when(imageStore.get(hash)).thenReturn(Optional.of(new byte[]{1, 2}));
+
+        // Act
+        Optional<StoredImage> result = productService.getProductImage(testProduct, ImageVariant.CARD);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("image/png", result.get().getContentType());
+        verify(imageVariantGenerator, times(1)).generateAsync(hash);
+    }
+
+    @Test
+    void getProductImages_ShouldLoadReferencesInOneQueryAndSkipProductsWithoutImage() throws Exception {
+        // Arrange
+        String hash = "e".repeat(64);
+        ProductImageRef withImage = imageRef(1, hash);
+        ProductImageRef withoutImage = imageRef(2, null);
+        when(productRepo.findImageRefsByIdIn(anyCollection())).thenReturn(List.of(withoutImage, withImage));
+        when(imageStore.getVariant(hash, ImageVariant.THUMBNAIL)).thenReturn(Optional.of(new byte[]{1}));
+
+        // Act
+        Map<Integer, StoredImage> result = productService.getProductImages(List.of(1, 2, 3, 1), ImageVariant.THUMBNAIL);
+
+        // Assert
+        assertEquals(List.of(1), List.copyOf(result.keySet()));
+        verify(productRepo, times(1)).findImageRefsByIdIn(anyCollection());
+    }
+
+    @Test
+    void getProductImages_WhenVariantMissing_ShouldOmitImageInsteadOfLoadingOriginal() throws Exception {
+        // Arrange
+        String hash = "e".repeat(64);
+        when(productRepo.findImageRefsByIdIn(anyCollection())).thenReturn(List.of(imageRef(1, hash)));
+        when(imageStore.getVariant(hash, ImageVariant.THUMBNAIL)).thenReturn(Optional.empty());
+
+        // Act
+        Map<Integer, StoredImage> result = productService.getProductImages(List.of(1), ImageVariant.THUMBNAIL);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(imageStore, never()).get(hash);
+        verify(imageVariantGenerator).generateAsync(hash);
+    }
+
+    @Test
+    void getProductImages_WithTooManyIds_ShouldThrowException() {
+        // Arrange
+        List<Integer> ids = IntStream.rangeClosed(1, ProductService.MAX_BATCH_IMAGES + 1).boxed().toList();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productService.getProductImages(ids, ImageVariant.THUMBNAIL));
+        verify(productRepo, never()).findImageRefsByIdIn(anyCollection());
+    }
+
+    @Test
+    void getProductImages_WithOriginalSize_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productService.getProductImages(List.of(1, 2), ImageVariant.ORIGINAL));
+        verify(productRepo, never()).findImageRefsByIdIn(anyCollection());
+    }
+
+    private ProductImageRef imageRef(int id, String hash) {
+        return new ProductImageRef() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public String getImageHash() {
+                return hash;
+            }
+
+            @Override
+            public String getImageType() {
+                return "image/png";
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ReportJobRequest;
+import com.cart.ecom_proj.dto.ReportJobStatus;
+import com.cart.ecom_proj.dto.ReportType;
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.cart.ecom_proj.exception.ResourceNotFoundException;
+import com.cart.ecom_proj.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @TempDir
+    private Path spoolDir;
+
+    private final ReportService reportService = mock(ReportService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ReportJobService jobService;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRenderReportIntoSpoolFile() throws Exception {
+        // Arrange
+        jobService = new ReportJobService(reportService, spoolDir, Duration.ofHours(1), 2, 10);
+        doAnswer(invocation -> write(invocation.getArgument(2), "OrderId\n1\n"))
+                .when(reportService).writeSalesReportCSV(eq(START), eq(END), any());
+
+        // Act
+        ReportJobStatus queued = jobService.submit(new ReportJobRequest(ReportType.SALES_CSV, START, END));
+        ReportJobStatus finished = awaitFinished(queued.getJobId());
+
+        // Assert
+        assertEquals(ReportJobStatus.State.COMPLETED, finished.getState());
+        assertEquals("sales-report-2024-01-01-to-2024-03-31.csv", finished.getFileName());
+        assertEquals(10, finished.getBytesWritten());
+        assertEquals("/api/reports/admin/jobs/" + queued.getJobId() + "/download", finished.getDownloadUrl());
+        Path file = jobService.getReportFile(queued.getJobId());
+        assertEquals(spoolDir, file.getParent());
+        assertEquals("OrderId\n1\n", Files.readString(file));
+    }
+
+    @Test
+    void submit_ShouldJoinIdenticalReportThatIsStillRunning() throws Exception {
+        // Arrange
+        jobService = new ReportJobService(reportService, spoolDir, Duration.ofHours(1), 2, 10);
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return write(invocation.getArgument(2), "%PDF");
+        }).when(reportService).writeOrderReportPDF(any(), any(), any());
+
+        // Act
+        ReportJobStatus first = jobService.submit(new ReportJobRequest(ReportType.ORDERS_PDF, START, END));
+        ReportJobStatus duplicate = jobService.submit(new ReportJobRequest(ReportType.ORDERS_PDF, START, END));
+        ReportJobStatus otherRange = jobService.submit(new ReportJobRequest(ReportType.ORDERS_PDF, START, START));
+        assertThrows(BadRequestException.class, () -> jobService.getReportFile(first.getJobId()));
+        release.countDown();
+        awaitFinished(first.getJobId());
+        awaitFinished(otherRange.getJobId());
+        ReportJobStatus afterCompletion = jobService.submit(new ReportJobRequest(ReportType.ORDERS_PDF, START, END));
+
+        // Assert
+        assertEquals(first.getJobId(), duplicate.getJobId());
+        assertNotEquals(first.getJobId(), otherRange.getJobId());
+        assertNotEquals(first.getJobId(), afterCompletion.getJobId());
+        verify(reportService, timeout(5000).times(2)).writeOrderReportPDF(eq(START), eq(END), any());
+        verify(reportService, times(1)).writeOrderReportPDF(eq(START), eq(START), any());
+    }
+
+    @Test
+    void submit_ShouldRefuseReportsWhenQueueIsFull() throws Exception {
+        // Arrange - one worker busy and one job queued
+        jobService = new ReportJobService(reportService, spoolDir, Duration.ofHours(1), 1, 1);
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(reportService).writeSalesReportCSV(any(), any(), any());
+        jobService.submit(new ReportJobRequest(ReportType.SALES_CSV, START, END));
+        jobService.submit(new ReportJobRequest(ReportType.SALES_CSV, START, START));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class,
+                () -> jobService.submit(new ReportJobRequest(ReportType.SALES_CSV, END, END)));
+        assertThrows(BadRequestException.class,
+                () -> jobService.submit(new ReportJobRequest(ReportType.SALES_CSV, END, START)));
+    }
+
+    @Test
+    void removeExpiredJobs_ShouldDeleteFinishedReportsAndFailedOutput() throws Exception {
+        // Arrange
+        jobService = new ReportJobService(reportService, spoolDir, Duration.ZERO, 2, 10);
+        doAnswer(invocation -> write(invocation.getArgument(2), "OrderId\n"))
+                .when(reportService).writeSalesReportCSV(any(), any(), any());
+        doThrow(new IOException("disk full")).when(reportService).writeOrderReportPDF(any(), any(), any());
+        ReportJobStatus completed = awaitFinished(
+                jobService.submit(new ReportJobRequest(ReportType.SALES_CSV, START, END)).getJobId());
+        ReportJobStatus failed = awaitFinished(
+                jobService.submit(new ReportJobRequest(ReportType.ORDERS_PDF, START, END)).getJobId());
+        assertEquals(ReportJobStatus.State.FAILED, failed.getState());
+        assertEquals("Report generation failed", failed.getMessage());
+        assertNull(failed.getDownloadUrl());
+        Path file = jobService.getReportFile(completed.getJobId());
+
+        // Act
+        Thread.sleep(5);
+        jobService.removeExpiredJobs();
+
+        // Assert
+        assertFalse(Files.exists(file));
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getStatus(completed.getJobId()));
+    }
+
+    private ReportJobStatus awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ReportJobStatus status = jobService.getStatus(jobId);
+        while (status.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = jobService.getStatus(jobId);
+        }
+        assertNotNull(status.getFinishedAt(), "Report job did not finish");
+        return status;
+    }
+
+    private static Void write(OutputStream out, String content) throws IOException {
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        return null;
+    }
+}
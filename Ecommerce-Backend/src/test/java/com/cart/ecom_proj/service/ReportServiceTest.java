@@ -0,0 +1,110 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.dto.SalesReportRow;
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+import com.cart.ecom_proj.repo.OrderRepository;
+import com.cart.ecom_proj.repo.ProductRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepo productRepo;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @Test
+    void writeProductListCSV_ShouldStreamRowsAndCloseQuery() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(productRepo.streamAllSummaries()).thenReturn(Stream.of(
+                new ProductSummary(1, "Laptop", "Dell", "Laptops", new BigDecimal("999.99"), true, 5, null),
+                new ProductSummary(2, "Mouse, wireless", "Logitech", "Accessories", new BigDecimal("19.99"), false, 0, null))
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        reportService.writeProductListCSV(out);
+
+        // Assert
+        assertEquals("""
+                "Id","Name","Brand","Category","Price","StockQuantity","Available"
+                "1","Laptop","Dell","Laptops","999.99","5","true"
+                "2","Mouse, wireless","Logitech","Accessories","19.99","0","false"
+                """, out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+        verify(productRepo, never()).findAll();
+    }
+
+    @Test
+    void writeSalesReportCSV_ShouldStreamProjectedRowsForWholeDays() throws Exception {
+        // Arrange
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 3, 31);
+        when(orderRepository.streamSalesReportRows(start.atStartOfDay(), end.atTime(LocalTime.MAX))).thenReturn(Stream.of(
+                new SalesReportRow(7L, LocalDateTime.of(2024, 2, 1, 12, 30), "jane", new BigDecimal("42.50"),
+                        PaymentStatus.PAID, OrderStatus.DELIVERED)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        reportService.writeSalesReportCSV(start, end, out);
+
+        // Assert
+        assertEquals("""
+                "OrderId","OrderDate","Customer","TotalAmount","PaymentStatus","Status"
+                "7","2024-02-01T12:30","jane","42.50","PAID","DELIVERED"
+                """, out.toString(StandardCharsets.UTF_8));
+        verify(orderRepository, never()).findByOrderDateBetweenAndDeletedFalse(any(), any());
+    }
+
+    @Test
+    void writeOrderReportPDF_ShouldRenderAllRowsWithoutClosingTheStream() throws Exception {
+        // Arrange - more rows than are kept in the table between flushes
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicBoolean outputClosed = new AtomicBoolean();
+        when(orderRepository.streamSalesReportRows(any(), any())).thenReturn(IntStream.rangeClosed(1, 1200)
+                .mapToObj(i -> new SalesReportRow((long) i, LocalDateTime.of(2024, 2, 1, 12, 30), "customer" + i,
+                        new BigDecimal("10.00"), PaymentStatus.PAID, OrderStatus.DELIVERED))
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                outputClosed.set(true);
+            }
+        };
+
+        // Act
+        reportService.writeOrderReportPDF(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31), out);
+
+        // Assert
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-"));
+        assertTrue(pdf.stripTrailing().endsWith("%%EOF"));
+        assertTrue(closed.get());
+        assertFalse(outputClosed.get());
+    }
+}
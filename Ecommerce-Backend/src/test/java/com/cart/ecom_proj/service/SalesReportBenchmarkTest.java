@@ -0,0 +1,152 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.repo.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sales report export over a large synthetic order table. Run with {@code ./gradlew benchmark};
+ * the task caps the heap at 256MB, so a report that buffered its rows would fail with an OOM.
+ * The order count can be changed with {@code -Dbenchmark.orders=...}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/benchmark/sales-report;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesReportBenchmarkTest {
+
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 1_000_000);
+    private static final int CUSTOMERS = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportService();
+        ReflectionTestUtils.setField(reportService, "orderRepository", orderRepository);
+
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, created_at, deleted, enabled) "
+                + "SELECT X, 'customer' || X, 'customer' || X || '@example.com', 'password', CURRENT_TIMESTAMP, false, true "
+                + "FROM SYSTEM_RANGE(1, ?)", CUSTOMERS);
+        // Spread the orders over 2024, about 2700 a day
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, "
+                + "phone_number, payment_method, payment_status, created_at, deleted) "
+                + "SELECT X, MOD(X, ?) + 1, DATEADD(SECOND, MOD(X * 7919, 31536000), TIMESTAMP '2024-01-01 00:00:00'), "
+                + "'DELIVERED', 10 + MOD(X, 990), 'Address ' || X, '0712345678', 'UPI', 'PAID', CURRENT_TIMESTAMP, "
+                + "MOD(X, 50) = 0 FROM SYSTEM_RANGE(1, ?)", CUSTOMERS, ORDERS);
+    }
+
+    @Test
+    void writeSalesReportCSV_ShouldExportAYearOfOrdersInConstantMemory() {
+        // Arrange
+        CountingOutputStream out = new CountingOutputStream();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        System.gc();
+        resetHeapPeaks();
+
+        // Act
+        long started = System.nanoTime();
+        readOnly.executeWithoutResult(status -> {
+            try {
+                reportService.writeSalesReportCSV(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Assert - one header line plus every order that is not soft-deleted
+        long expectedRows = ORDERS - ORDERS / 50;
+        assertEquals(expectedRows + 1, out.lines);
+        System.out.printf("Sales report: %d rows, %d MB in %d ms (%.0f rows/s), peak heap %d MB%n",
+                expectedRows, out.bytes >> 20, elapsedMillis, expectedRows * 1000.0 / Math.max(elapsedMillis, 1),
+                peakHeap() >> 20);
+    }
+
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Discards the report, keeping only its size.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.dto.DailySales;
+import com.cart.ecom_proj.dto.SalesSummary;
+import com.cart.ecom_proj.dto.StatusSales;
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+import com.cart.ecom_proj.repo.DailySalesRollupRepository;
+import com.cart.ecom_proj.repo.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DailySalesRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private SalesRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new SalesRollupService();
+        ReflectionTestUtils.setField(rollupService, "rollupRepository", rollupRepository);
+        ReflectionTestUtils.setField(rollupService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(rollupService, "transactionManager", transactionManager);
+    }
+
+    @Test
+    void apply_ShouldMoveOrderTotalsBetweenRows() {
+        // Arrange
+        SalesRollupService.Contribution placed = contribution(DAY, OrderStatus.PENDING, PaymentStatus.PENDING, "40.00", 2);
+        SalesRollupService.Contribution paid = contribution(DAY, OrderStatus.CONFIRMED, PaymentStatus.PAID, "40.00", 2);
+        SalesRollupService.Contribution other = contribution(DAY.plusDays(1), OrderStatus.PENDING, PaymentStatus.PENDING, "15.50", 1);
+        SalesRollupService.Contribution cancelled = contribution(DAY.plusDays(1), OrderStatus.CANCELLED, PaymentStatus.PENDING, "15.50", 1);
+
+        // Act
+        rollupService.apply(null, placed);
+        rollupService.apply(placed, paid);
+        rollupService.apply(null, other);
+        rollupService.apply(other, cancelled);
+        rollupService.apply(paid, paid);
+        SalesSummary summary = rollupService.getSummary(DAY, DAY.plusDays(1));
+
+        // Assert - cancelled orders only show up in the status breakdown
+        assertEquals(1, summary.getOrderCount());
+        assertEquals(0, new BigDecimal("40.00").compareTo(summary.getRevenue()));
+        assertEquals(2, summary.getItemCount());
+        assertEquals(List.of(DAY), summary.getDays().stream().map(DailySales::getDate).toList());
+        assertEquals(List.of(OrderStatus.CANCELLED, OrderStatus.CONFIRMED),
+                summary.getByStatus().stream().map(StatusSales::getStatus).toList());
+        assertEquals(List.of(1L, 1L), summary.getByStatus().stream().map(StatusSales::getOrderCount).toList());
+    }
+
+    @Test
+    void rebuild_ShouldMatchOrdersTable() {
+        // Arrange
+        insertUserAndProduct();
+        insertOrder(1, DAY.atTime(9, 0), "DELIVERED", "PAID", "30.00", false, 1, 2);
+        insertOrder(2, DAY.atTime(23, 59), "DELIVERED", "PAID", "12.50", false, 3);
+        insertOrder(3, DAY.atTime(12, 0), "PENDING", "PENDING", "99.00", true, 5);
+        insertOrder(4, DAY.plusDays(1).atStartOfDay(), "CANCELLED", "REFUNDED", "8.00", false, 1);
+        // A stale row from before the rebuild
+        rollupRepository.addToRollup(DAY, OrderStatus.PENDING, PaymentStatus.PENDING, 7, new BigDecimal("70.00"), 7);
+
+        // Act
+        int days = rollupService.rebuildAll();
+        SalesSummary summary = rollupService.getSummary(DAY, DAY.plusDays(1));
+
+        // Assert
+        assertEquals(2, days);
+        assertEquals(2, summary.getOrderCount());
+        assertEquals(0, new BigDecimal("42.50").compareTo(summary.getRevenue()));
+        assertEquals(6, summary.getItemCount());
+        assertEquals(2, summary.getByStatus().size());
+        StatusSales cancelled = summary.getByStatus().get(0);
+        assertEquals(OrderStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(PaymentStatus.REFUNDED, cancelled.getPaymentStatus());
+        assertEquals(1L, cancelled.getItemCount());
+    }
+
+    private SalesRollupService.Contribution contribution(LocalDate day, OrderStatus status, PaymentStatus paymentStatus,
+                                                         String revenue, long items) {
+        return new SalesRollupService.Contribution(day, status, paymentStatus, new BigDecimal(revenue), items);
+    }
+
+    private void insertUserAndProduct() {
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, created_at, deleted, enabled) "
+                + "VALUES (100, 'customer', 'customer@example.com', 'password', CURRENT_TIMESTAMP, false, true)");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(ProductImportService.INSERT_SQL, "Mug", "Mug", "Brand", "Kitchen", new BigDecimal("5.00"),
+                now, true, 100, now, now, "admin", "admin");
+    }
+
+    private void insertOrder(long id, LocalDateTime orderDate, String status, String paymentStatus, String total,
+                             boolean deleted, int... quantities) {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, "
+                + "phone_number, payment_method, payment_status, created_at, deleted) "
+                + "VALUES (?, 100, ?, ?, ?, '1 Main St', '0712345678', 'UPI', ?, ?, ?)",
+                id, orderDate, status, new BigDecimal(total), paymentStatus, orderDate, deleted);
+        Integer productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Integer.class);
+        for (int quantity : quantities) {
+            jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, quantity, price_at_order, subtotal) "
+                    + "VALUES (?, ?, ?, 5.00, ?)", id, productId, quantity, new BigDecimal("5.00").multiply(BigDecimal.valueOf(quantity)));
+        }
+    }
+}
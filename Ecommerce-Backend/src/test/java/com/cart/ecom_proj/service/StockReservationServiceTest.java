@@ -0,0 +1,167 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.config.JpaConfig;
+import com.cart.ecom_proj.dto.UpdateOrderStatusRequest;
+import com.cart.ecom_proj.exception.BadRequestException;
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.OrderStatus;
+import com.cart.ecom_proj.model.PaymentStatus;
+import com.cart.ecom_proj.model.ReservationStatus;
+import com.cart.ecom_proj.repo.OrderRepository;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.repo.StockReservationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(JpaConfig.class)
+class StockReservationServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private StockReservationService reservationService;
+    private int productId;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new StockReservationService();
+        ReflectionTestUtils.setField(reservationService, "reservationRepository", reservationRepository);
+        ReflectionTestUtils.setField(reservationService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(reservationService, "productRepo", productRepo);
+        ReflectionTestUtils.setField(reservationService, "salesRollupService", mock(SalesRollupService.class));
+        ReflectionTestUtils.setField(reservationService, "invoiceService", mock(InvoiceService.class));
+        ReflectionTestUtils.setField(reservationService, "hotSkuInventory",
+                new HotSkuInventory(jdbcTemplate, transactionManager, List.of(), Path.of("unused"), 1));
+        ReflectionTestUtils.setField(reservationService, "transactionManager", transactionManager);
+        // Holds are due right away
+        ReflectionTestUtils.setField(reservationService, "reservationTtl", Duration.ZERO);
+        ReflectionTestUtils.setField(reservationService, "expiryBatchSize", 10);
+
+        // An unpaid order of 2 mugs, whose stock was already taken
+        Timestamp created = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, created_at, deleted, enabled) "
+                + "VALUES (100, 'customer', 'customer@example.com', 'password', CURRENT_TIMESTAMP, false, true)");
+        jdbcTemplate.update(ProductImportService.INSERT_SQL, "Mug", "Mug", "Brand", "Kitchen", new BigDecimal("5.00"),
+                created, true, 8, created, created, "admin", "admin");
+        productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Integer.class);
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, "
+                + "phone_number, payment_method, payment_status, created_at, deleted) "
+                + "VALUES (1, 100, ?, 'PENDING', 10.00, '1 Main St', '0712345678', 'UPI', 'PENDING', ?, false)",
+                created, created);
+        jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, quantity, price_at_order, subtotal) "
+                + "VALUES (1, ?, 2, 5.00, 10.00)", productId);
+        reservationService.hold(orderRepository.findById(1L).orElseThrow());
+        // The queue is filled after commit, which a rolled back test never reaches; use the startup reload
+        reservationService.loadActiveHolds();
+    }
+
+    @Test
+    void releaseExpired_ShouldCancelUnpaidOrderAndRestoreStock() {
+        // Act
+        reservationService.releaseExpired();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(1L).orElseThrow().getStatus());
+        assertEquals(10, stockOf(productId));
+        assertEquals(ReservationStatus.EXPIRED, reservationRepository.findAll().get(0).getStatus());
+    }
+
+    @Test
+    void releaseExpired_ShouldKeepStockOfConfirmedOrder() {
+        // Arrange
+        assertTrue(reservationService.confirm(1L));
+
+        // Act
+        reservationService.releaseExpired();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(1L).orElseThrow().getStatus());
+        assertEquals(8, stockOf(productId));
+        assertEquals(ReservationStatus.CONFIRMED, reservationRepository.findAll().get(0).getStatus());
+        assertFalse(reservationService.release(1L));
+    }
+
+    @Test
+    void updateOrderPaymentStatus_ShouldMarkLatePaymentOfExpiredOrderForRefund() {
+        // Arrange
+        reservationService.releaseExpired();
+        OrderService orderService = newOrderService();
+
+        // Act
+        orderService.updateOrderPaymentStatus(1L, PaymentStatus.PAID);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        Order order = orderRepository.findById(1L).orElseThrow();
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+        assertEquals(PaymentStatus.REFUNDED, order.getPaymentStatus());
+        assertEquals(10, stockOf(productId));
+    }
+
+    @Test
+    void updateOrderStatus_ShouldNotReopenExpiredOrder() {
+        // Arrange
+        reservationService.releaseExpired();
+        OrderService orderService = newOrderService();
+        UpdateOrderStatusRequest request = new UpdateOrderStatusRequest();
+        request.setStatus(OrderStatus.SHIPPED);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> orderService.updateOrderStatus(1L, request));
+        assertEquals(10, stockOf(productId));
+    }
+
+    private OrderService newOrderService() {
+        OrderService orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "productRepo", productRepo);
+        ReflectionTestUtils.setField(orderService, "salesRollupService", mock(SalesRollupService.class));
+        ReflectionTestUtils.setField(orderService, "invoiceService", mock(InvoiceService.class));
+        ReflectionTestUtils.setField(orderService, "stockReservationService", reservationService);
+        ReflectionTestUtils.setField(orderService, "hotSkuInventory",
+                new HotSkuInventory(jdbcTemplate, transactionManager, List.of(), Path.of("unused"), 1));
+        return orderService;
+    }
+
+    private int stockOf(int productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,70 @@
+package com.cart.ecom_proj.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ImageVariantGeneratorTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFileSystemImageStore imageStore;
+    private ImageVariantGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = spy(new LocalFileSystemImageStore(root.toString()));
+        generator = new ImageVariantGenerator(imageStore, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdown();
+    }
+
+    @Test
+    void generate_ShouldStoreAllResizedVariants() throws Exception {
+        // Arrange
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), "png", png);
+        String hash = imageStore.put(png.toByteArray());
+
+        // Act
+        generator.generate(hash);
+
+        // Assert
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (variant.isResized()) {
+                assertTrue(imageStore.getVariant(hash, variant).isPresent(), variant.getParamName());
+            }
+        }
+    }
+
+    @Test
+    void generate_WithUndecodableImage_ShouldNotReadItAgain() throws Exception {
+        // Arrange: e.g. WebP, which ImageIO cannot decode
+        String hash = imageStore.put("RIFF....WEBPVP8 ".getBytes(StandardCharsets.US_ASCII));
+
+        // Act
+        generator.generate(hash);
+        generator.generate(hash);
+        generator.generateAsync(hash);
+
+        // Assert
+        verify(imageStore, times(1)).get(hash);
+        assertTrue(imageStore.getVariant(hash, ImageVariant.THUMBNAIL).isEmpty());
+    }
+}
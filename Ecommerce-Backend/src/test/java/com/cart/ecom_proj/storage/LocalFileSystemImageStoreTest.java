@@ -0,0 +1,76 @@
+package com.cart.ecom_proj.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileSystemImageStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFileSystemImageStore imageStore;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new LocalFileSystemImageStore(root.toString());
+    }
+
+    @Test
+    void put_ShouldReturnSha256OfContent() throws Exception {
+        // Act
+        String hash = imageStore.put("abc".getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hash);
+        assertTrue(imageStore.exists(hash));
+    }
+
+    @Test
+    void put_WithSameContentTwice_ShouldStoreOneFile() throws Exception {
+        // Arrange
+        byte[] content = new byte[]{1, 2, 3, 4};
+
+        // Act
+        String first = imageStore.put(content);
+        String second = imageStore.put(content);
+
+        // Assert
+        assertEquals(first, second);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void get_ShouldReturnStoredContent() throws Exception {
+        // Arrange
+        byte[] content = new byte[]{9, 8, 7};
+        String hash = imageStore.put(content);
+
+        // Act
+        Optional<byte[]> result = imageStore.get(hash);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertArrayEquals(content, result.get());
+    }
+
+    @Test
+    void get_WhenHashIsUnknown_ShouldReturnEmpty() throws Exception {
+        assertTrue(imageStore.get("0".repeat(64)).isEmpty());
+    }
+
+    @Test
+    void get_WithMalformedHash_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> imageStore.get("../../etc/passwd"));
+    }
+}
@@ -124,24 +124,37 @@ const AdminOrders = () => {
     }
   };
 
+  // Queues a report job, polls it until the file is ready and downloads it
+  const downloadReport = async (type, days) => {
+    const end = new Date();
+    const start = new Date();
+    start.setDate(end.getDate() - (days - 1));
+    const startDate = start.toISOString().split('T')[0];
+    const endDate = end.toISOString().split('T')[0];
+
+    let { data: job } = await API.post('/reports/admin/jobs', { type, startDate, endDate });
+    while (job.state === 'QUEUED' || job.state === 'RUNNING') {
+      await new Promise((resolve) => setTimeout(resolve, 1000));
+      ({ data: job } = await API.get(`/reports/admin/jobs/${job.jobId}`));
+    }
+    if (job.state !== 'COMPLETED') {
+      throw new Error(job.message || 'Report generation failed');
+    }
+
+    const res = await API.get(`/reports/admin/jobs/${job.jobId}/download`, { responseType: 'blob' });
+    const url = window.URL.createObjectURL(res.data);
+    const a = document.createElement('a');
+    a.href = url;
+    a.download = job.fileName;
+    document.body.appendChild(a);
+    a.click();
+    a.remove();
+    window.URL.revokeObjectURL(url);
+  };
+
   const handleGenerateOrdersReport = async (days = 30) => {
     try {
-      const end = new Date();
-      const start = new Date();
-      start.setDate(end.getDate() - (days - 1));
-      const startStr = start.toISOString().split('T')[0];
-      const endStr = end.toISOString().split('T')[0];
-
-      const res = await API.get(`/reports/admin/orders?startDate=${startStr}&endDate=${endStr}`, { responseType: 'blob' });
-      const blob = new Blob([res.data], { type: 'application/pdf' });
-      const url = window.URL.createObjectURL(blob);
-      const a = document.createElement('a');
-      a.href = url;
-      a.download = `orders-report-${startStr}-to-${endStr}.pdf`;
-      document.body.appendChild(a);
-      a.click();
-      a.remove();
-      window.URL.revokeObjectURL(url);
+      await downloadReport('ORDERS_PDF', days);
     } catch (err) {
       console.error('Failed to generate orders report:', err);
       alert('Failed to generate orders report');
@@ -150,22 +163,7 @@ const AdminOrders = () => {
 
   const handleExportSalesCsv = async (days = 30) => {
     try {
-      const end = new Date();
-      const start = new Date();
-      start.setDate(end.getDate() - (days - 1));
-      const startStr = start.toISOString().split('T')[0];
-      const endStr = end.toISOString().split('T')[0];
-
-      const res = await API.get(`/reports/admin/sales?startDate=${startStr}&endDate=${endStr}`, { responseType: 'blob' });
-      const blob = new Blob([res.data], { type: 'text/csv' });
-      const url = window.URL.createObjectURL(blob);
-      const a = document.createElement('a');
-      a.href = url;
-      a.download = `sales-report-${startStr}-to-${endStr}.csv`;
-      document.body.appendChild(a);
-      a.click();
-      a.remove();
-      window.URL.revokeObjectURL(url);
+      await downloadReport('SALES_CSV', days);
     } catch (err) {
       console.error('Failed to export sales csv:', err);
       alert('Failed to export sales csv');
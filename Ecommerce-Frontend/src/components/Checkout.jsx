@@ -42,7 +42,7 @@ const Checkout = () => {
         const cartItemsWithImages = await Promise.all(
           updatedCartItems.map(async (item) => {
             try {
-              const imageResponse = await API.get(`/product/${item.id}/image`, {
+              const imageResponse = await API.get(`/product/${item.id}/image?size=thumbnail`, {
                 responseType: "blob",
               });
               const imageUrl = URL.createObjectURL(imageResponse.data);
@@ -1,6 +1,5 @@
 import React, { useContext, useEffect, useState } from "react";
 import { Link, useSearchParams } from "react-router-dom";
-import axios from "axios";
 import API from "../axios";
 import AppContext from "../Context/Context";
 import Pagination from "./Pagination";
@@ -48,6 +47,11 @@ const Home = ({ selectedCategory, onClearCategory, searchKeyword, onClearSearch
     fetchProducts();
   }, [currentPage, pageSize, sortBy, sortDir]);
 
+  // Searches are ranked by relevance unless the user picked another order
+  const effectiveSortBy = searchKeyword && searchKeyword.trim()
+    ? (searchParams.get("sortBy") ? sortBy : "relevance")
+    : (sortBy === "relevance" ? "id" : sortBy);
+
   const fetchProducts = async () => {
     setLoading(true);
     setError("");
@@ -57,7 +61,7 @@ const Home = ({ selectedCategory, onClearCategory, searchKeyword, onClearSearch
       const params = new URLSearchParams({
         page: currentPage.toString(),
         size: pageSize.toString(),
-        sortBy: sortBy,
+        sortBy: effectiveSortBy,
         sortDir: sortDir
       });
 
@@ -105,22 +109,28 @@ const Home = ({ selectedCategory, onClearCategory, searchKeyword, onClearSearch
 
   const fetchProductImages = async (productsData) => {
     console.log("Fetching images for products:", productsData);
-    return Promise.all(
-      productsData.map(async (product) => {
-        try {
-          const response = await axios.get(
-            `http://localhost:8080/api/product/${product.id}/image`,
-            { responseType: "blob" }
-          );
-          const imageUrl = URL.createObjectURL(response.data);
-          return { ...product, imageUrl };
-        } catch (error) {
-          console.error("Error fetching image for product ID:", product.id, error);
-          // Use fallback image from assets
-          return { ...product, imageUrl: unplugged };
-        }
-      })
-    );
+    const ids = productsData.filter((product) => product.imageHash).map((product) => product.id);
+    if (ids.length === 0) {
+      return productsData.map((product) => ({ ...product, imageUrl: unplugged }));
+    }
+    try {
+      // One multipart/form-data response with a part per product, named after the product ID
+      const response = await API.get("/products/images", {
+        params: { ids: ids.join(","), size: "card" },
+        responseType: "arraybuffer",
+      });
+      const images = await new Response(response.data, {
+        headers: { "Content-Type": response.headers["content-type"] },
+      }).formData();
+      return productsData.map((product) => {
+        const image = images.get(String(product.id));
+        return { ...product, imageUrl: image ? URL.createObjectURL(image) : unplugged };
+      });
+    } catch (error) {
+      console.error("Error fetching product images:", error);
+      // Use fallback image from assets
+      return productsData.map((product) => ({ ...product, imageUrl: unplugged }));
+    }
   };
 
   const handlePageChange = (newPage) => {
@@ -195,12 +205,13 @@ const Home = ({ selectedCategory, onClearCategory, searchKeyword, onClearSearch
             <select
               id="sortBy"
               className="px-3 py-2 border border-gray-300 dark:border-gray-600 rounded-md bg-white dark:bg-gray-700 text-gray-900 dark:text-gray-100 focus:ring-2 focus:ring-blue-500 focus:border-blue-500"
-              value={`${sortBy}-${sortDir}`}
+              value={`${effectiveSortBy}-${effectiveSortBy === "relevance" ? "asc" : sortDir}`}
               onChange={(e) => {
                 const [newSortBy, newSortDir] = e.target.value.split("-");
                 handleSortChange(newSortBy, newSortDir);
               }}
             >
+              {searchKeyword && <option value="relevance-asc">Best match</option>}
               <option value="id-asc">Newest</option>
               <option value="id-desc">Oldest</option>
               <option value="name-asc">Name A-Z</option>
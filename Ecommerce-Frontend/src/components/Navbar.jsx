@@ -41,10 +41,6 @@ const Navbar = ({ onSelectCategory, onSearch, selectedCategory: selectedCategory
     return () => window.removeEventListener("scroll", handleScroll);
   }, []);
 
-  useEffect(() => {
-    fetchData();
-  }, []);
-
   useEffect(() => {
     localStorage.setItem("theme", theme);
     const root = document.documentElement;
@@ -52,21 +48,12 @@ const Navbar = ({ onSelectCategory, onSearch, selectedCategory: selectedCategory
     document.body.dataset.theme = theme;
   }, [theme]);
 
-  const fetchData = async () => {
-    try {
-      const response = await API.get("/products");
-      setSearchResults(response.data);
-    } catch (error) {
-      console.error("Error fetching data:", error);
-    }
-  };
-
   const handleChange = async (value) => {
     setInput(value);
     if (value.length >= 1) {
       setShowSearchResults(true);
       try {
-        const response = await API.get(`/products/search?keyword=${value}`);
+        const response = await API.get("/products/suggest", { params: { prefix: value } });
         setSearchResults(response.data);
         setNoResults(response.data.length === 0);
       } catch (error) {
@@ -89,11 +76,18 @@ const Navbar = ({ onSelectCategory, onSearch, selectedCategory: selectedCategory
     }
   };
 
-  const handleSearchResultClick = (productId) => {
+  const handleSearchResultClick = (suggestion) => {
     setShowSearchResults(false);
-    setInput("");
     setMenuState(false);
-    navigate(`/product/${productId}`);
+    if (suggestion.productId) {
+      setInput("");
+      navigate(`/product/${suggestion.productId}`);
+      return;
+    }
+    // Brand and category suggestions run a search for the suggested text
+    setInput(suggestion.text);
+    if (onSearch) onSearch(suggestion.text);
+    if (window.location.pathname !== "/") navigate("/");
   };
 
   const handleCategorySelect = (category) => {
@@ -311,23 +305,20 @@ const Navbar = ({ onSelectCategory, onSearch, selectedCategory: selectedCategory
                     {searchResults.length > 0 ? (
                       <>
                         <li className="px-4 py-2 text-xs text-muted">
-                          Click a product to view details, or press Enter to search all
+                          Click a suggestion, or press Enter to search all
                         </li>
-                        {searchResults.slice(0, 5).map((result) => (
-                          <li key={result.id} className="border-b border-gray-200 dark:border-gray-600 last:border-b-0">
+                        {searchResults.map((result) => (
+                          <li key={`${result.type}-${result.productId ?? result.text}`} className="border-b border-gray-200 dark:border-gray-600 last:border-b-0">
                             <button
                               className="w-full text-left px-4 py-3 hover:bg-muted transition-colors"
-                              onClick={() => handleSearchResultClick(result.id)}>
-                              <div className="font-medium text-sm">{result.name}</div>
-                              <div className="text-xs text-gray-500 dark:text-gray-400">{result.brand}</div>
+                              onClick={() => handleSearchResultClick(result)}>
+                              <div className="font-medium text-sm">{result.text}</div>
+                              <div className="text-xs text-gray-500 dark:text-gray-400">
+                                {result.type === "PRODUCT" ? "Product" : result.type === "BRAND" ? "Brand" : "Category"}
+                              </div>
                             </button>
                           </li>
                         ))}
-                        {searchResults.length > 5 && (
-                          <li className="px-4 py-2 text-xs text-muted">
-                            {searchResults.length - 5} more results... Press Enter to see all
-                          </li>
-                        )}
                       </>
                     ) : (
                       noResults && (
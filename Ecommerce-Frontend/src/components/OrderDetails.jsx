@@ -51,7 +51,7 @@ const OrderDetails = () => {
         order.items.map(async (item) => {
           try {
             const imageResponse = await API.get(
-              `/product/${item.productId}/image`,
+              `/product/${item.productId}/image?size=thumbnail`,
               { responseType: "blob" }
             );
             const imageUrl = URL.createObjectURL(imageResponse.data);
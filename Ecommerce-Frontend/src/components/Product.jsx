@@ -30,7 +30,7 @@ const Product = () => {
 
     const fetchImage = async () => {
       const response = await axios.get(
-        `http://localhost:8080/api/product/${id}/image`,
+        `http://localhost:8080/api/product/${id}/image?size=detail`,
         { responseType: "blob" }
       );
       setImageUrl(URL.createObjectURL(response.data));
@@ -19,7 +19,7 @@ const SearchFilters = ({ onFilterChange, initialFilters = {} }) => {
   useEffect(() => {
     const fetchFilters = async () => {
       try {
-        const response = await API.get('/api/products/filters');
+        const response = await API.get('/products/filters');
         setCategories(response.data.categories);
         setBrands(response.data.brands);
       } catch (error) {